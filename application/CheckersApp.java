@@ -3,6 +3,7 @@ package application;
 import javafx.application.Application;
 import javafx.stage.Stage;
 import scene.SceneManager;
+import utils.CheckersAI;
 import utils.GameTimer;
 
 /**
@@ -42,10 +43,11 @@ public class CheckersApp extends Application {
 	
 	/**
 	 * Clean up the Java timer when closing. Omitting this will leave an open
-	 * thread.
+	 * thread. The AI's analysis of this run is saved for the next one.
 	 */
 	@Override
 	public void stop() {
 		GameTimer.cleanUp();
+		CheckersAI.flushCache();
 	}
 }
\ No newline at end of file
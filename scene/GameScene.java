@@ -48,6 +48,13 @@ public class GameScene extends CheckersScene {
 		((GameBoardSubScene) gameBoard).start();
 	}
 	
+	/**
+	 * Leave the game without finishing it, see GameBoardSubScene.forfeit.
+	 */
+	public void forfeitGame() {
+		((GameBoardSubScene) gameBoard).forfeit();
+	}
+	
 	/**
 	 * Set up Game Scene specific variables.
 	 */
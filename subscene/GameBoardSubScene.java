@@ -4,6 +4,7 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import application.Configs;
@@ -20,10 +21,14 @@ import javafx.scene.text.Font;
 import javafx.util.Duration;
 import scene.CheckersScene;
 import scene.GameDifficulty;
+import utils.CheckersAI;
 import utils.CheckersAIReturn;
 import utils.CheckersLogic;
+import utils.GameLogic;
 import utils.GameTimer;
-import utils.Vector2i;
+import utils.Move;
+import utils.MoveGenerator;
+import utils.Square;
 
 /**
  * Subscene for the Game Board.
@@ -36,7 +41,6 @@ import utils.Vector2i;
  */
 public class GameBoardSubScene extends CheckersSubScene {
 	private CheckersScene scene;
-	private int[][] gameBoard;
 	
 	private Label title;
 	private Label timerLabel;
@@ -47,17 +51,34 @@ public class GameBoardSubScene extends CheckersSubScene {
 	
 	private int playerTurn;
 	
-	private Vector2i gamePieceCoordSelected;
+	private Square gamePieceCoordSelected;
 	private ImageView gamePieceImageSelected;
 	private ImageView highlightedSpace;
 	
-	private Map<Vector2i, ImageView> gameBoardImages;
-	private Map<String, ImageView> gameBoardPieces;
+	// Squares clicked so far for the selected piece, when it has to jump more than once
+	private List<Square> jumpLandings = new ArrayList<Square>();
+	
+	private Map<Square, ImageView> gameBoardImages;
+	private Map<Square, ImageView> gameBoardPieces;
 	
 	private CheckersLogic checkersLogic;
 	
 	private GameDifficulty gameDifficulty;
 	
+	// Counts the games started and forfeited, so a move the AI found for an earlier game is not played.
+	// Also read by the threads of the AI
+	private volatile int gameNumber;
+	
+	// Counts the turns, so the AI does not ponder on a turn the human already played
+	private volatile int turnNumber;
+	
+	// If a game is being played, and if it is paused by the in-game menu
+	private boolean isGameActive;
+	private volatile boolean isPaused;
+	
+	// Move the AI found while the game was paused, it is played when the game resumes
+	private CheckersAIReturn pendingAIMove;
+	
 	/**
 	 * Initialize the sub-scene.
 	 * @param scene CheckersScene
@@ -68,8 +89,8 @@ public class GameBoardSubScene extends CheckersSubScene {
 		this.scene = scene;
 		
 		checkersLogic = new CheckersLogic();
-		gameBoardImages = new HashMap<Vector2i, ImageView>();
-		gameBoardPieces = new HashMap<String, ImageView>();
+		gameBoardImages = new HashMap<Square, ImageView>();
+		gameBoardPieces = new HashMap<Square, ImageView>();
 		setup();
 	}
 	
@@ -83,6 +104,11 @@ public class GameBoardSubScene extends CheckersSubScene {
 		}
 		
 		GameTimer.reset();
+		gameNumber++;
+		isGameActive = true;
+		isPaused = false;
+		pendingAIMove = null;
+		CheckersAI.stopPondering();
 		checkersLogic.reset();
 		resetGameboard();
 		
@@ -95,15 +121,25 @@ public class GameBoardSubScene extends CheckersSubScene {
 		startTimer();
 	}
 	
+	/**
+	 * Leave the game without finishing it. A move the AI is still searching is not played.
+	 */
+	public void forfeit () {
+		gameNumber++;
+		isGameActive = false;
+		pendingAIMove = null;
+		CheckersAI.stopPondering();
+	}
+	
 	/**
 	 * Reset the gameboard to its original state. Clean up all images and re-initialize them.
 	 */
 	private void resetGameboard () {
-		for (Map.Entry<Vector2i, ImageView> entry : gameBoardImages.entrySet()) {
+		for (Map.Entry<Square, ImageView> entry : gameBoardImages.entrySet()) {
 			remove(entry.getValue());
 		}
 		
-		for (Map.Entry<String, ImageView> entry : gameBoardPieces.entrySet()) {
+		for (Map.Entry<Square, ImageView> entry : gameBoardPieces.entrySet()) {
 			remove(entry.getValue());
 		}
 		
@@ -149,54 +185,107 @@ public class GameBoardSubScene extends CheckersSubScene {
 	 */
 	private void changeToPlayersTurn (Integer player) {
 		playerTurn = player;
+		turnNumber++;
 		gamePieceCoordSelected = null;
 		gamePieceImageSelected = null;
 		highlightedSpace = null;
+		jumpLandings.clear();
 		
 		if (player == 1) {
 			title.setText(playerOneName + "'s Turn");
 		} else if (player == 2 && isSinglePlayer) {
 			title.setText("Opponent's Turn");
 			
-			Platform.runLater(() -> {
-				CheckersAIReturn aiMoveReturn = checkersLogic.moveAI(gameDifficulty);
-				gamePieceImageSelected = gameBoardPieces.get(aiMoveReturn.getFrom().toString());
-				gamePieceCoordSelected = aiMoveReturn.getFrom();
+			// The AI thinks on a thread of its own, so the window stays responsive. It searches a copy of
+			// the game, and its move is played on the JavaFX thread
+			GameLogic game = checkersLogic.copy();
+			GameDifficulty difficulty = gameDifficulty;
+			int searchedGame = gameNumber;
+			int humanTurn = turnNumber + 1;
+			
+			Thread aiThread = new Thread(() -> {
+				long move = CheckersAI.findBestMove(game, difficulty);
 				
-				ArrayList<Vector2i> aiMoves = new ArrayList<Vector2i>();
-				aiMoves.add(aiMoveReturn.getTo());
-				ArrayList<Vector2i> movePiece = checkersLogic.move(aiMoveReturn.getFrom(), aiMoves);
+				Platform.runLater(() -> {
+					if (searchedGame == gameNumber) playAIMove(new CheckersAIReturn(move));
+				});
 				
-				if (movePiece.size() > 0) {
-					updatePieceImage(gamePieceCoordSelected, aiMoveReturn.getTo());
-					updateGameBoard(aiMoveReturn.getTo(), movePiece, checkersLogic.getGameBoard()[aiMoveReturn.getTo().x][aiMoveReturn.getTo().y] != checkersLogic.getGameBoard()[aiMoveReturn.getFrom().x][aiMoveReturn.getFrom().y]);
-						
-					int checkForWinningPlayer = checkersLogic.hasWonGame();
-					
-					if (checkForWinningPlayer == 1) {
-						endGame(checkForWinningPlayer);
-					} else if (checkForWinningPlayer == 2) {
-						endGame(-2);
-					} else {
-						changeToPlayersTurn(playerTurn == 1 ? 2 : 1);
-							
-						if (checkersLogic.checkIfDraw(playerTurn) && checkForWinningPlayer < 0) {
-							endGame(-1);
-						}
-					}
+				// While the human thinks about the reply, the AI thinks about its next move. The move is
+				// shown first, starting to ponder can take a shallow search
+				if (move != 0) {
+					game.makeMove(move);
+					ponder(game, difficulty, searchedGame, humanTurn);
 				}
-				
-				changeToPlayersTurn(1);
-			});
-			
-			
-
-			
+			}, "checkers-ai");
+			aiThread.setDaemon(true);
+			aiThread.start();
 		} else {
 			title.setText(playerTwoName + "'s Turn");
 		}
 	}
 	
+	/**
+	 * Let the AI think on the human's time, see CheckersAI.ponder. Waits for the AI to be free, so it
+	 * must not be called on the JavaFX thread.
+	 * @param game GameLogic with the human to move, owned by the AI
+	 * @param difficulty GameDifficulty
+	 * @param searchedGame int number of the game the position is from
+	 * @param humanTurn int number of the human's turn in the position
+	 */
+	private void ponder (GameLogic game, GameDifficulty difficulty, int searchedGame, int humanTurn) {
+		if (!isPonderingUseful(searchedGame, humanTurn)) return;
+		
+		CheckersAI.ponder(game, difficulty);
+		
+		// The game may have been left, paused or played on while the search started, then it was not stopped
+		if (!isPonderingUseful(searchedGame, humanTurn)) CheckersAI.stopPondering();
+	}
+	
+	/**
+	 * Check if the human is still thinking about a turn, and the game has not been paused or left.
+	 */
+	private boolean isPonderingUseful (int searchedGame, int humanTurn) {
+		return searchedGame == gameNumber && turnNumber <= humanTurn && !isPaused;
+	}
+	
+	/**
+	 * Play the move the AI found.
+	 * @param aiMoveReturn CheckersAIReturn
+	 */
+	private void playAIMove (CheckersAIReturn aiMoveReturn) {
+		// The move waits while the in-game menu is open, and is dropped once the game is over
+		if (!isGameActive) return;
+		if (isPaused) {
+			pendingAIMove = aiMoveReturn;
+			return;
+		}
+		
+		long aiMove = aiMoveReturn.getMove();
+		gamePieceImageSelected = gameBoardPieces.get(aiMoveReturn.getFromSquare());
+		gamePieceCoordSelected = aiMoveReturn.getFromSquare();
+		
+		if (checkersLogic.playMove(aiMove)) {
+			updatePieceImage(gamePieceCoordSelected, aiMoveReturn.getToSquare());
+			updateGameBoard(aiMove);
+				
+			int checkForWinningPlayer = checkersLogic.hasWonGame();
+			
+			if (checkForWinningPlayer == 1) {
+				endGame(checkForWinningPlayer);
+			} else if (checkForWinningPlayer == 2) {
+				endGame(-2);
+			} else {
+				changeToPlayersTurn(playerTurn == 1 ? 2 : 1);
+					
+				if (checkersLogic.checkIfDraw(playerTurn) && checkForWinningPlayer < 0) {
+					endGame(-1);
+				}
+			}
+		}
+		
+		changeToPlayersTurn(1);
+	}
+	
 	/**
 	 * Utility function to condense the creation of labels.
 	 * @param text String
@@ -244,12 +333,12 @@ public class GameBoardSubScene extends CheckersSubScene {
 					space.setLayoutY(100 + j * 75); // 100 constant value to push the game board down 100px from the top, preserving 20px padding on bottom
 					
 					space.addEventHandler(MouseEvent.MOUSE_CLICKED, event -> {
-						onClick(new Vector2i(x, y), null);
+						onClick(Square.at(x, y), null);
 						event.consume();
 					});
 					
 					add(space);
-					gameBoardImages.put(new Vector2i(i, j), space);
+					gameBoardImages.put(Square.at(i, j), space);
 				}
 				
 				if (gameBoard[i][j] == 1) {
@@ -262,12 +351,12 @@ public class GameBoardSubScene extends CheckersSubScene {
 					playerOnePiece.addEventHandler(MouseEvent.MOUSE_CLICKED, event -> {
 						int playerOnePieceXCoord = (int) ((playerOnePiece.getLayoutX() - 240) / 75);
 						int playerOnePieceYCoord = (int) ((playerOnePiece.getLayoutY() - 100) / 75);
-						onClick(new Vector2i(playerOnePieceXCoord, playerOnePieceYCoord), playerOnePiece);
+						onClick(Square.at(playerOnePieceXCoord, playerOnePieceYCoord), playerOnePiece);
 						event.consume();
 					});
 					
 					add(playerOnePiece);
-					gameBoardPieces.put(new Vector2i(i, j).toString(), playerOnePiece);
+					gameBoardPieces.put(Square.at(i, j), playerOnePiece);
 				}
 				
 				// put the game pieces down for player 2
@@ -281,12 +370,12 @@ public class GameBoardSubScene extends CheckersSubScene {
 					playerTwoPiece.addEventHandler(MouseEvent.MOUSE_CLICKED, event -> {
 						int playerTwoPieceXCoord = (int) ((playerTwoPiece.getLayoutX() - 240) / 75);
 						int playerTwoPieceYCoord = (int) ((playerTwoPiece.getLayoutY() - 100) / 75);
-						onClick(new Vector2i(playerTwoPieceXCoord, playerTwoPieceYCoord), playerTwoPiece);
+						onClick(Square.at(playerTwoPieceXCoord, playerTwoPieceYCoord), playerTwoPiece);
 						event.consume();
 					});
 					
 					add(playerTwoPiece);
-					gameBoardPieces.put(new Vector2i(i, j).toString(), playerTwoPiece);
+					gameBoardPieces.put(Square.at(i, j), playerTwoPiece);
 				}
 			}
 			
@@ -324,20 +413,29 @@ public class GameBoardSubScene extends CheckersSubScene {
 	 * then select it (e.g. piece that we're going to move). Then subsequent selections
 	 * should be where the piece will move to.
 	 */
-	private void onClick (Vector2i coord, ImageView playerPiece) {
-		if (gamePieceCoordSelected != null && playerPiece == null) {
-			// take the game piece at the x,y and move its coords to the new coord
-				ArrayList<Vector2i> moves = new ArrayList<Vector2i>();
-				moves.add(coord);
-				
-				int gamePieceSelectedValue = checkersLogic.getGameBoard()[gamePieceCoordSelected.x][gamePieceCoordSelected.y];
-				
-				ArrayList<Vector2i> movePiece = checkersLogic.move(gamePieceCoordSelected, moves);
+	private void onClick (Square coord, ImageView playerPiece) {
+		// The pieces of the AI cannot be moved while it thinks
+		if (isSinglePlayer && playerTurn == 2) return;
+		
+		// A king can end a chain of jumps on the square it started from, which still shows the king
+		boolean isLanding = playerPiece == null || (!jumpLandings.isEmpty() && coord == gamePieceCoordSelected);
+		
+		if (gamePieceCoordSelected != null && isLanding) {
+			// take the game piece at the x,y and move its coords to the new coord. A chain of jumps can
+			// be clicked one landing square at a time, which is needed when two chains end on the same square
+				jumpLandings.add(coord);
+				long move = checkersLogic.findMove(gamePieceCoordSelected, jumpLandings);
 				
-				if (movePiece.size() > 0) {
+				if (move == 0 && checkersLogic.startsMove(gamePieceCoordSelected, jumpLandings)) {
+					title.setText("Click the next square to jump to");
+				} else if (move == 0 && jumpLandings.size() == 1 && checkersLogic.findMoves(gamePieceCoordSelected, coord, new long[MoveGenerator.MAX_MOVES]) > 1) {
+					jumpLandings.clear();
+					title.setText("Several jumps end there, click each square to jump to");
+				} else if (move != 0 && checkersLogic.playMove(move)) {
+					jumpLandings.clear();
 					updatePieceImage(gamePieceCoordSelected, coord);
 					
-					updateGameBoard(coord, movePiece, checkersLogic.getGameBoard()[coord.x][coord.y] != gamePieceSelectedValue);
+					updateGameBoard(move);
 					
 					int checkForWinningPlayer = checkersLogic.hasWonGame();
 					
@@ -352,8 +450,13 @@ public class GameBoardSubScene extends CheckersSubScene {
 					}
 					
 				} else {
+					jumpLandings.clear();
+					title.setText((playerTurn == 1 ? playerOneName : playerTwoName) + "'s Turn");
 					System.out.println("Not a valid move, try again!");
 				}
+				
+				// A landing never selects a piece, even the king that ends its chain where it started
+				return;
 		}
 		
 		if (checkersLogic.isSelectable(playerTurn, coord)) {
@@ -361,6 +464,8 @@ public class GameBoardSubScene extends CheckersSubScene {
 			 if (playerPiece != null) {
 				gamePieceCoordSelected = coord;
 				gamePieceImageSelected = playerPiece;
+				jumpLandings.clear();
+				title.setText((playerTurn == 1 ? playerOneName : playerTwoName) + "'s Turn");
 				
 				if (highlightedSpace != null) {
 					remove(highlightedSpace);
@@ -376,25 +481,36 @@ public class GameBoardSubScene extends CheckersSubScene {
 		}
 	}
 	
-	private void updatePieceImage (Vector2i from, Vector2i to) {
-		gameBoardPieces.put(to.toString(), gameBoardPieces.get(from.toString()));
-		gameBoardPieces.remove(from.toString());
+	private void updatePieceImage (Square from, Square to) {
+		// a king can end a chain of jumps on the space it started from
+		if (from == to) return;
+		
+		gameBoardPieces.put(to, gameBoardPieces.remove(from));
 	}
 	
-	private void updateGameBoard (Vector2i to, ArrayList<Vector2i> jumpedPieces, boolean hasUpgradedToKing) {
-		this.gameBoard = checkersLogic.getGameBoard();
+	/**
+	 * Update the images after a move was played: move the selected piece, crown it and remove
+	 * every piece it jumped.
+	 * @param move long packed move (see utils.Move)
+	 */
+	private void updateGameBoard (long move) {
+		Square to = Square.of(Move.getTo(move));
 
 		gamePieceImageSelected.setLayoutX(240 + to.x * 75);
 		gamePieceImageSelected.setLayoutY(100 + to.y * 75);
 		
-		if (gameBoard[to.x][to.y] == 11 && hasUpgradedToKing) {
-			gamePieceImageSelected.setImage(new Image("file:resources/player-1-piece-stacked.png"));
-		} else if (gameBoard[to.x][to.y] == 22 && hasUpgradedToKing) {
-			gamePieceImageSelected.setImage(new Image("file:resources/player-2-piece-stacked.png"));
+		if (Move.isPromotion(move)) {
+			boolean isPlayerOne = checkersLogic.isSelectable(1, to);
+			gamePieceImageSelected.setImage(new Image(isPlayerOne ? "file:resources/player-1-piece-stacked.png" : "file:resources/player-2-piece-stacked.png"));
 		}
 		
-		if (jumpedPieces.size() > 0) {
-			remove(gameBoardPieces.get(jumpedPieces.get(0).toString()));
+		// a chain of jumps can remove more than one piece
+		int captures = Move.getCaptures(move);
+		while (captures != 0) {
+			ImageView jumpedPieceImage = gameBoardPieces.remove(Square.of(Integer.numberOfTrailingZeros(captures)));
+			captures &= captures - 1;
+			
+			if (jumpedPieceImage != null) remove(jumpedPieceImage);
 		}
 		
 		// remove selection
@@ -413,6 +529,8 @@ public class GameBoardSubScene extends CheckersSubScene {
 	 */
 	private void endGame (int playerWhoWon) {
 		GameTimer.pause();
+		isGameActive = false;
+		CheckersAI.stopPondering();
 		
 		if (playerWhoWon == 1) {
 			scene.setWinner(playerOneName, GameTimer.getTimeElapsedInSeconds(), WinConditions.PLAYER_ONE);
@@ -463,6 +581,31 @@ public class GameBoardSubScene extends CheckersSubScene {
 		//else GameTimer.pause();
 		
 		transition.play();
+		
+		isPaused = !isSubSceneActive;
+		if (isPaused) {
+			// The AI does not think on the human's time while the game is paused
+			CheckersAI.stopPondering();
+			return;
+		}
+		
+		if (pendingAIMove != null) {
+			CheckersAIReturn aiMoveReturn = pendingAIMove;
+			pendingAIMove = null;
+			playAIMove(aiMoveReturn);
+		}
+		
+		// Back to the human's turn, the AI starts thinking on it again
+		if (isGameActive && isSinglePlayer && playerTurn == 1) {
+			GameLogic game = checkersLogic.copy();
+			GameDifficulty difficulty = gameDifficulty;
+			int resumedGame = gameNumber;
+			int humanTurn = turnNumber;
+			
+			Thread ponderThread = new Thread(() -> ponder(game, difficulty, resumedGame, humanTurn), "checkers-ai");
+			ponderThread.setDaemon(true);
+			ponderThread.start();
+		}
 	}
 
 }
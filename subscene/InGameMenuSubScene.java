@@ -15,6 +15,7 @@ import javafx.scene.image.ImageView;
 import javafx.scene.text.Font;
 import javafx.util.Duration;
 import scene.CheckersScene;
+import scene.GameScene;
 import scene.Scenes;
 import utils.GameTimer;
 
@@ -156,6 +157,9 @@ public class InGameMenuSubScene extends CheckersSubScene {
 			@Override
 			public void handle(ActionEvent event) {
 				try {
+					// End the game first, so the board does not play a move of the AI when it is shown again
+					((GameScene) scene).forfeitGame();
+					
 					// Return the state back to the game board
 					segueToSubScene(SubScenes.GAME_BOARD);
 					
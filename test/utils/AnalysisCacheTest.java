@@ -0,0 +1,98 @@
+package test.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import utils.AnalysisCache;
+
+public class AnalysisCacheTest {
+	@Test
+	public void keptBetweenRuns () throws IOException {
+		File file = File.createTempFile("analysis", ".bin");
+		file.deleteOnExit();
+		
+		AnalysisCache cache = new AnalysisCache(file.getPath());
+		assertNull(cache.lookup(42L, 64));
+		
+		cache.store(42L, 10, 64, -150, 77L);
+		assertEquals(77L, cache.lookup(42L, 64).move);
+		cache.flush();
+		
+		// A new run reads the result from the file
+		AnalysisCache next = new AnalysisCache(file.getPath());
+		AnalysisCache.Entry entry = next.lookup(42L, 64);
+		assertNotNull(entry);
+		assertEquals(77L, entry.move);
+		assertEquals(10, entry.depth);
+		assertEquals(64, entry.maxDepth);
+		assertEquals(-150, entry.score);
+	}
+	
+	@Test
+	public void keepsDeepestResult () throws IOException {
+		File file = File.createTempFile("analysis", ".bin");
+		file.deleteOnExit();
+		
+		AnalysisCache cache = new AnalysisCache(file.getPath());
+		cache.store(42L, 12, 64, 0, 1L);
+		cache.store(42L, 8, 64, 0, 2L);
+		cache.flush();
+		
+		assertEquals(1L, cache.lookup(42L, 64).move);
+		assertEquals(12, cache.lookup(42L, 64).depth);
+	}
+	
+	@Test
+	public void keepsResultPerDepthLimit () throws IOException {
+		File file = File.createTempFile("analysis", ".bin");
+		file.deleteOnExit();
+		
+		// A deep result of one difficulty does not keep out the shallower result of another
+		AnalysisCache cache = new AnalysisCache(file.getPath());
+		cache.store(42L, 14, 64, 10, 1L);
+		cache.store(42L, 8, 8, 20, 2L);
+		assertEquals(2L, cache.lookup(42L, 8).move);
+		cache.flush();
+		
+		AnalysisCache next = new AnalysisCache(file.getPath());
+		assertEquals(1L, next.lookup(42L, 64).move);
+		assertEquals(14, next.lookup(42L, 64).depth);
+		assertEquals(2L, next.lookup(42L, 8).move);
+		assertEquals(8, next.lookup(42L, 8).depth);
+		assertNull(next.lookup(42L, 4));
+	}
+	
+	@Test
+	public void invalidFile () throws IOException {
+		// A file that is not a cache is started over
+		File file = File.createTempFile("analysis", ".bin");
+		file.deleteOnExit();
+		try (FileWriter writer = new FileWriter(file)) {
+			writer.write("not a cache");
+		}
+		
+		AnalysisCache cache = new AnalysisCache(file.getPath());
+		assertNull(cache.lookup(42L, 64));
+		cache.store(42L, 9, 64, 0, 3L);
+		cache.flush();
+		
+		assertEquals(3L, new AnalysisCache(file.getPath()).lookup(42L, 64).move);
+	}
+	
+	@Test
+	public void disabled () throws IOException {
+		File file = File.createTempFile("analysis", ".bin");
+		file.deleteOnExit();
+		
+		AnalysisCache cache = new AnalysisCache(file.getPath());
+		cache.setEnabled(false);
+		cache.store(42L, 10, 64, 0, 1L);
+		
+		assertNull(cache.lookup(42L, 64));
+	}
+}
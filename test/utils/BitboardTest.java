@@ -0,0 +1,45 @@
+package test.utils;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import utils.Bitboard;
+
+public class BitboardTest {
+	@Test
+	public void testSquareMapping () {
+		for (int square = 0; square < Bitboard.SQUARES; square++) {
+			assertEquals(square, Bitboard.toSquare(Bitboard.squareX(square), Bitboard.squareY(square)));
+		}
+		
+		assertEquals(-1, Bitboard.toSquare(1, 0));
+		assertEquals(-1, Bitboard.toSquare(8, 0));
+	}
+	
+	@Test
+	public void testStartingPosition () {
+		Bitboard board = new Bitboard();
+		
+		assertEquals(12, Integer.bitCount(board.getWhite()));
+		assertEquals(12, Integer.bitCount(board.getBlack()));
+		assertEquals(0, board.getKings());
+		assertEquals(1, board.getCell(0, 0));
+		assertEquals(2, board.getCell(6, 6));
+		assertEquals(-1, board.getCell(1, 0));
+	}
+	
+	@Test
+	public void testGameBoardRoundTrip () {
+		Bitboard board = new Bitboard();
+		board.setCell(3, 3, 22);
+		board.setCell(0, 0, 0);
+		
+		Bitboard copy = new Bitboard(0, 0, 0);
+		copy.fromGameBoard(board.toGameBoard());
+		
+		assertEquals(board.getWhite(), copy.getWhite());
+		assertEquals(board.getBlack(), copy.getBlack());
+		assertEquals(board.getKings(), copy.getKings());
+		assertEquals(22, copy.getCell(3, 3));
+	}
+}
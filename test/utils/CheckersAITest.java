@@ -0,0 +1,51 @@
+package test.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import scene.GameDifficulty;
+import utils.CheckersAI;
+import utils.CheckersLogic;
+import utils.Move;
+import utils.MoveGenerator;
+
+public class CheckersAITest {
+	@Before
+	public void disableCache () {
+		// The results of the AI must not depend on the analysis of earlier runs
+		CheckersAI.setCacheEnabled(false);
+	}
+	
+	@Test
+	public void bothPlayers () {
+		// The AI has to find a legal move for either player, at every difficulty
+		for (GameDifficulty difficulty : GameDifficulty.values()) {
+			CheckersLogic logic = new CheckersLogic();
+			
+			for (int ply = 0; ply < 4; ply++) {
+				long move = CheckersAI.findBestMove(logic, difficulty);
+				assertTrue(logic.playMove(move));
+			}
+		}
+	}
+	
+	@Test
+	public void avoidsLosingThePiece () {
+		// Stepping to (3, 3) lets the man on (2, 2) jump it and win the game
+		CheckersLogic logic = CheckersLogic.fromFen("B:W10:B19");
+		long move = CheckersAI.findBestMove(logic, GameDifficulty.EASY);
+		
+		assertEquals("(4, 4) -> (5, 3)", Move.toString(move));
+	}
+	
+	@Test
+	public void noMove () {
+		// Player 2 cannot move, the AI returns no move
+		CheckersLogic logic = CheckersLogic.fromFen("B:W1,2:B5");
+		
+		assertEquals(0, logic.generateMoves(2, new long[MoveGenerator.MAX_MOVES], 0));
+		assertEquals(0, CheckersAI.findBestMove(logic, GameDifficulty.HARD));
+	}
+}
@@ -3,11 +3,18 @@ package test.utils;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
 
 import org.junit.Test;
 
+import utils.Bitboard;
 import utils.CheckersLogic;
+import utils.Move;
+import utils.MoveGenerator;
+import utils.Square;
 import utils.Vector2i;
+import utils.Zobrist;
 
 public class CheckersLogicTest {
 	@Test
@@ -60,6 +67,51 @@ public class CheckersLogicTest {
 		assertTrue(mv.size() == 1);
 	}
 	
+	@Test
+	public void makeAndUnmakeMove () {
+		CheckersLogic logic = new CheckersLogic();
+		int[][] before = logic.getGameBoard();
+		long[] moves = new long[MoveGenerator.MAX_MOVES];
+		int count = logic.generateMoves(1, moves, 0);
+		
+		for (int i = 0; i < count; i++) {
+			logic.makeMove(moves[i]);
+			assertTrue(logic.getPlayerTurn() == 2);
+			logic.unmakeMove(moves[i]);
+			
+			assertTrue(logic.getPlayerTurn() == 1);
+			assertTrue(Arrays.deepEquals(before, logic.getGameBoard()));
+		}
+	}
+	
+	@Test
+	public void zobristKey () {
+		CheckersLogic logic = new CheckersLogic();
+		long[] moves = new long[MoveGenerator.MAX_MOVES];
+		Random random = new Random(1);
+		
+		for (int game = 0; game < 20; game++) {
+			logic.reset();
+			
+			for (int ply = 0; ply < 100; ply++) {
+				int count = logic.generateMoves(logic.getPlayerTurn(), moves, 0);
+				if (count == 0) break;
+				
+				long move = moves[random.nextInt(count)];
+				long keyBefore = logic.getKey();
+				
+				logic.makeMove(move);
+				assertTrue(logic.getKey() == Zobrist.compute(logic.getBitboard(), logic.getPlayerTurn()));
+				assertTrue(logic.getKey() != keyBefore);
+				
+				logic.unmakeMove(move);
+				assertTrue(logic.getKey() == keyBefore);
+				
+				logic.makeMove(move);
+			}
+		}
+	}
+	
 	@Test
 	public void checkIfDraw () {
 		CheckersLogic logic = new CheckersLogic();
@@ -67,9 +119,119 @@ public class CheckersLogicTest {
 		assertTrue(!logic.checkIfDraw(2));
 	}
 	
+	@Test
+	public void hasAnyMove () {
+		// Random positions, the quick checks have to agree with the full move generation
+		Random random = new Random(1);
+		long[] moves = new long[MoveGenerator.MAX_MOVES];
+		
+		for (int i = 0; i < 20000; i++) {
+			int occupied = random.nextInt() & random.nextInt();
+			int white = occupied & random.nextInt();
+			int black = occupied & ~white;
+			Bitboard board = new Bitboard(white, black, occupied & random.nextInt() & random.nextInt());
+			
+			for (int playerTurn = 1; playerTurn <= 2; playerTurn++) {
+				int moveCount = MoveGenerator.generate(board, playerTurn, moves, 0);
+				
+				assertTrue(MoveGenerator.hasAnyMove(board, playerTurn) == (moveCount > 0));
+				assertTrue(MoveGenerator.hasJump(board, playerTurn) == (moveCount > 0 && Move.isCapture(moves[0])));
+				assertTrue(new CheckersLogic(board, playerTurn).checkIfDraw(playerTurn) == (moveCount == 0));
+			}
+		}
+	}
+	
+	@Test
+	public void repetition () {
+		// Two kings shuffling back and forth
+		CheckersLogic logic = CheckersLogic.fromFen("W:WK1:BK32");
+		int[][] shuffle = { { 0, 4 }, { 31, 27 }, { 4, 0 }, { 27, 31 } };
+		
+		for (int round = 1; round <= 2; round++) {
+			assertTrue(logic.getRepetitionCount() == round);
+			assertTrue(!logic.checkIfDraw(1));
+			
+			for (int[] step : shuffle) {
+				assertTrue(logic.playMove(logic.findMove(Square.of(step[0]), Square.of(step[1]))));
+			}
+		}
+		
+		assertTrue(logic.getRepetitionCount() == 3);
+		assertTrue(logic.isDrawByRepetition());
+		assertTrue(logic.checkIfDraw(1));
+		
+		// Making and unmaking a move keeps the history
+		long move = logic.findMove(Square.of(0), Square.of(4));
+		logic.makeMove(move);
+		assertTrue(logic.getRepetitionCount() == 3);
+		logic.unmakeMove(move);
+		assertTrue(logic.getRepetitionCount() == 3);
+		
+		// A man move cannot be repeated
+		logic.loadFen("W:W1:B32");
+		logic.playMove(logic.findMove(Square.of(0), Square.of(4)));
+		logic.playMove(logic.findMove(Square.of(31), Square.of(27)));
+		assertTrue(logic.getRepetitionCount() == 1);
+	}
+	
+	@Test
+	public void noProgress () {
+		CheckersLogic logic = CheckersLogic.fromFen("W:WK1:BK32");
+		logic.setNoProgressLimit(3);
+		int[][] moves = { { 0, 4 }, { 31, 27 }, { 4, 9 }, { 27, 22 }, { 9, 4 } };
+		
+		for (int[] step : moves) {
+			assertTrue(!logic.isDrawByNoProgress());
+			logic.playMove(logic.findMove(Square.of(step[0]), Square.of(step[1])));
+		}
+		
+		assertTrue(!logic.isDrawByNoProgress());
+		logic.playMove(logic.findMove(Square.of(22), Square.of(27)));
+		assertTrue(logic.isDrawByNoProgress());
+		assertTrue(logic.checkIfDraw(1));
+	}
+	
 	@Test
 	public void hasWonGame () {
 		CheckersLogic logic = new CheckersLogic();
 		assertTrue(logic.hasWonGame() == -1);
 	}
+	
+	@Test
+	public void captureCountAndMoveIndex () {
+		CheckersLogic logic = CheckersLogic.fromFen("B:W15:B19,20");
+		long[] moves = new long[MoveGenerator.MAX_MOVES];
+		assertTrue(logic.generateMoves(2, moves, 0) == 2);
+		
+		assertTrue(logic.getCaptureCount(moves[0]) == 1);
+		assertTrue(logic.getCaptureCount(moves[1]) == 1);
+		assertTrue(logic.getMoveIndex(moves[0]) != logic.getMoveIndex(moves[1]));
+		assertTrue(logic.getMoveIndex(logic.findMove(Square.of(18), Square.of(11))) == ((18 << 6) | 11));
+		
+		CheckersLogic start = new CheckersLogic();
+		assertTrue(start.getCaptureCount(start.findMove(Square.of(8), Square.of(12))) == 0);
+	}
+	
+	@Test
+	public void chainsWithTheSameEnd () {
+		// The man on (2, 0) can reach (2, 4) over (3, 1) and (3, 3) or over (1, 1) and (1, 3)
+		CheckersLogic logic = CheckersLogic.fromFen("W:W2:B5,6,13,14");
+		Square from = Square.of(1);
+		long[] moves = new long[MoveGenerator.MAX_MOVES];
+		
+		assertTrue(logic.findMoves(from, Square.of(17), moves) == 2);
+		assertTrue(logic.findMove(from, Square.of(17)) == 0);
+		
+		// The squares it lands on tell the chains apart
+		assertTrue(logic.startsMove(from, Arrays.asList(Square.of(10))));
+		assertTrue(!logic.startsMove(from, Arrays.asList(Square.of(17))));
+		long move = logic.findMove(from, Arrays.asList(Square.of(10), Square.of(17)));
+		assertTrue(Move.getCaptures(move) == ((1 << 5) | (1 << 13)));
+		
+		ArrayList<Vector2i> landings = new ArrayList<Vector2i>();
+		landings.add(new Vector2i(0, 2));
+		landings.add(new Vector2i(2, 4));
+		assertTrue(logic.move(new Vector2i(2, 0), landings).size() == 2);
+		assertTrue(logic.getBitboard().getCell(1, 1) == 0 && logic.getBitboard().getCell(3, 1) == 2);
+	}
 }
@@ -0,0 +1,92 @@
+package test.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import utils.Bitboard;
+import utils.CheckersLogic;
+import utils.Fen;
+import utils.InternationalLogic;
+import utils.MoveGenerator;
+
+public class FenTest {
+	@Test
+	public void startPosition () {
+		CheckersLogic logic = new CheckersLogic();
+		
+		assertEquals(Fen.START, logic.toFen());
+		assertEquals(logic.getKey(), CheckersLogic.fromFen(Fen.START).getKey());
+		assertEquals(logic.getKey(), CheckersLogic.fromFen("W:W1-12:B21-32.").getKey());
+	}
+	
+	@Test
+	public void standardPdn () {
+		// The standard start positions of both boards
+		assertEquals(Fen.START, Fen.fromPdn("B:W21-32:B1-12", 32));
+		assertEquals(InternationalLogic.START.replace("W1-20", "W1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16,17,18,19,20")
+				.replace("B31-50", "B31,32,33,34,35,36,37,38,39,40,41,42,43,44,45,46,47,48,49,50"),
+				Fen.fromPdn("W:W31-50:B1-20", 50));
+		
+		// B to move has to take on 18 and lands on 23
+		CheckersLogic logic = CheckersLogic.fromFen(Fen.fromPdn("B:W18:B14", 32));
+		long[] moves = new long[MoveGenerator.MAX_MOVES];
+		assertEquals(1, logic.generateMoves(logic.getPlayerTurn(), moves, 0));
+		assertTrue(logic.playMove(moves[0]));
+		assertEquals("W:W:B23", Fen.toPdn(logic.toFen(), 32));
+		
+		assertEquals("W:WK5,10:B18,K32", Fen.toPdn(Fen.fromPdn("W:WK5,10:B18,K32", 50), 50));
+	}
+	
+	@Test
+	public void parse () {
+		Bitboard board = new Bitboard();
+		
+		assertEquals(2, Fen.parse("B:WK5, 10:B18,K32", board));
+		assertEquals((1 << 4) | (1 << 9), board.getWhite());
+		assertEquals((1 << 17) | (1 << 31), board.getBlack());
+		assertEquals((1 << 4) | (1 << 31), board.getKings());
+		assertEquals(11, board.getCell(1, 1));
+		assertEquals(22, board.getCell(7, 7));
+	}
+	
+	@Test
+	public void invalid () {
+		String[] invalid = { "", "X:W1", "W:W1:B1", "W:W0", "W:W33", "W:W5-3", "W:W1,,2", "W;W1", "W:Z1" };
+		
+		for (String fen : invalid) {
+			Bitboard board = new Bitboard();
+			try {
+				Fen.parse(fen, board);
+				fail("Parsed " + fen);
+			} catch (IllegalArgumentException e) {
+				// The board is unchanged
+				assertEquals(Bitboard.WHITE_START, board.getWhite());
+			}
+		}
+	}
+	
+	@Test
+	public void roundTrip () {
+		// Play random games, every position has to come back from its string
+		Random random = new Random(1);
+		long[] moves = new long[MoveGenerator.MAX_MOVES];
+		CheckersLogic loaded = new CheckersLogic();
+		
+		for (int game = 0; game < 50; game++) {
+			CheckersLogic logic = new CheckersLogic();
+			
+			for (int ply = 0; ply < 100; ply++) {
+				loaded.loadFen(logic.toFen());
+				assertEquals(logic.getKey(), loaded.getKey());
+				assertEquals(logic.toFen(), loaded.toFen());
+				
+				int moveCount = logic.generateMoves(logic.getPlayerTurn(), moves, 0);
+				if (moveCount == 0) break;
+				logic.playMove(moves[random.nextInt(moveCount)]);
+			}
+		}
+	}
+}
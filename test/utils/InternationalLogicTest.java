@@ -0,0 +1,141 @@
+package test.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import scene.GameDifficulty;
+import utils.CheckersAI;
+import utils.InternationalLogic;
+import utils.InternationalMove;
+import utils.InternationalMoveGenerator;
+
+public class InternationalLogicTest {
+	@Before
+	public void disableCache () {
+		// The results of the AI must not depend on the analysis of earlier runs
+		CheckersAI.setCacheEnabled(false);
+	}
+	
+	@Test
+	public void initialize () {
+		InternationalLogic logic = new InternationalLogic();
+		
+		assertEquals(1, logic.getPlayerTurn());
+		assertEquals(20, logic.getMenCount(1));
+		assertEquals(20, logic.getMenCount(2));
+		assertEquals(InternationalLogic.fromFen(InternationalLogic.START).getKey(), logic.getKey());
+		assertEquals(1, logic.getBitboard().getCell(0, 0));
+		assertEquals(2, logic.getBitboard().getCell(9, 9));
+		assertEquals(-1, logic.getBitboard().getCell(1, 0));
+	}
+	
+	@Test
+	public void flyingKing () {
+		// The king on (0, 0) can go anywhere up to the man on (9, 9)
+		long[] moves = new long[InternationalMoveGenerator.MAX_MOVES];
+		assertEquals(8, InternationalLogic.fromFen("W:WK1:B50").generateMoves(1, moves, 0));
+		
+		// It captures the man on (6, 6) from a distance and can land on any square behind it
+		int count = InternationalLogic.fromFen("W:WK1:B34").generateMoves(1, moves, 0);
+		assertEquals(3, count);
+		for (int i = 0; i < count; i++) {
+			assertEquals(1L << 33, InternationalMove.getCaptures(moves[i]));
+		}
+	}
+	
+	@Test
+	public void manCapturesBackwards () {
+		long[] moves = new long[InternationalMoveGenerator.MAX_MOVES];
+		
+		assertEquals(1, InternationalLogic.fromFen("W:W23:B17").generateMoves(1, moves, 0));
+		assertEquals("(4, 4) -> (2, 2)", InternationalMove.toString(moves[0]));
+	}
+	
+	@Test
+	public void hasCapture () {
+		// hasCapture agrees with the generator over random games
+		Random random = new Random(5);
+		long[] moves = new long[InternationalMoveGenerator.MAX_MOVES];
+		
+		for (int game = 0; game < 20; game++) {
+			InternationalLogic logic = new InternationalLogic();
+			
+			for (int ply = 0; ply < 80; ply++) {
+				int count = logic.generateMoves(logic.getPlayerTurn(), moves, 0);
+				assertEquals(count > 0 && InternationalMove.isCapture(moves[0]), logic.hasCapture(logic.getPlayerTurn()));
+				if (count == 0) break;
+				logic.playMove(moves[random.nextInt(count)]);
+			}
+		}
+	}
+	
+	@Test
+	public void majorityCapture () {
+		// The man on (8, 0) could capture one piece, the man on (0, 0) captures two and has to
+		long[] moves = new long[InternationalMoveGenerator.MAX_MOVES];
+		
+		assertEquals(1, InternationalLogic.fromFen("W:W1,5:B6,9,17").generateMoves(1, moves, 0));
+		assertEquals("(0, 0) -> (4, 4)", InternationalMove.toString(moves[0]));
+		assertEquals(2, Long.bitCount(InternationalMove.getCaptures(moves[0])));
+	}
+	
+	@Test
+	public void crownedOnlyAtTheEnd () {
+		long[] moves = new long[InternationalMoveGenerator.MAX_MOVES];
+		
+		// Passing the far row during the capture does not crown the man
+		assertEquals(1, InternationalLogic.fromFen("W:W38:B44,45").generateMoves(1, moves, 0));
+		assertEquals("(5, 7) -> (9, 7)", InternationalMove.toString(moves[0]));
+		assertTrue(!InternationalMove.isPromotion(moves[0]));
+		
+		// Ending there does
+		assertEquals(1, InternationalLogic.fromFen("W:W38:B44").generateMoves(1, moves, 0));
+		assertTrue(InternationalMove.isPromotion(moves[0]));
+	}
+	
+	@Test
+	public void makeAndUnmakeMove () {
+		// Random games, every move has to keep the key right and unmake has to restore the position
+		Random random = new Random(1);
+		long[] moves = new long[InternationalMoveGenerator.MAX_MOVES];
+		
+		for (int game = 0; game < 20; game++) {
+			InternationalLogic logic = new InternationalLogic();
+			
+			for (int ply = 0; ply < InternationalLogic.MAX_PLY; ply++) {
+				int count = logic.generateMoves(logic.getPlayerTurn(), moves, 0);
+				assertEquals(count > 0, logic.hasAnyMove(logic.getPlayerTurn()));
+				if (count == 0) break;
+				
+				long move = moves[random.nextInt(count)];
+				String before = logic.toFen();
+				long keyBefore = logic.getKey();
+				
+				logic.makeMove(move);
+				assertEquals(InternationalLogic.fromFen(logic.toFen()).getKey(), logic.getKey());
+				logic.unmakeMove(move);
+				assertEquals(before, logic.toFen());
+				assertEquals(keyBefore, logic.getKey());
+				
+				logic.makeMove(move);
+			}
+		}
+	}
+	
+	@Test
+	public void ai () {
+		// The AI plays player 2, after the first move of player 1
+		InternationalLogic logic = new InternationalLogic();
+		long[] moves = new long[InternationalMoveGenerator.MAX_MOVES];
+		logic.generateMoves(1, moves, 0);
+		assertTrue(logic.playMove(moves[0]));
+		
+		long move = CheckersAI.findBestMove(logic, GameDifficulty.MEDIUM);
+		assertTrue(logic.playMove(move));
+		assertEquals(1, logic.getPlayerTurn());
+	}
+}
@@ -0,0 +1,79 @@
+package test.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import utils.CheckersLogic;
+import utils.InternationalLogic;
+import utils.Perft;
+
+public class PerftTest {
+	// Published perft counts of the 8x8 start position for depths 1 - 9
+	private static final long[] START_POSITION = { 7, 49, 302, 1469, 7361, 36768, 179740, 845931, 3963680 };
+	
+	// Published perft counts of the 10x10 international draughts start position for depths 1 - 7
+	private static final long[] INTERNATIONAL_START_POSITION = { 9, 81, 658, 4265, 27117, 167140, 1049442 };
+	
+	@Test
+	public void startPosition () {
+		CheckersLogic logic = new CheckersLogic();
+		
+		for (int depth = 1; depth <= 8; depth++) {
+			assertEquals("perft(" + depth + ")", START_POSITION[depth - 1], Perft.perft(logic, depth));
+		}
+	}
+	
+	@Test
+	public void forcedJump () {
+		// Only the jump may be played
+		assertEquals(1, Perft.perft(Perft.getPosition(1), 1));
+		assertEquals(21, Perft.perft(Perft.getPosition(1), 6));
+	}
+	
+	@Test
+	public void kingMultiJump () {
+		// Both chains are generated as complete moves
+		ArrayList<String> lines = new ArrayList<String>();
+		Perft.divide(Perft.getPosition(2), 1, lines);
+		
+		assertEquals(2, lines.size());
+		assertTrue(lines.contains("(1, 1) -> (1, 5): 1"));
+		assertTrue(lines.contains("(1, 1) -> (5, 5): 1"));
+		assertEquals(803, Perft.perft(Perft.getPosition(2), 6));
+	}
+	
+	@Test
+	public void crownedManStops () {
+		ArrayList<String> lines = new ArrayList<String>();
+		Perft.divide(Perft.getPosition(3), 1, lines);
+		
+		assertEquals(1, lines.size());
+		assertEquals("(3, 5) -> (5, 7): 1", lines.get(0));
+		assertEquals(374, Perft.perft(Perft.getPosition(3), 6));
+	}
+	
+	@Test
+	public void divideAddsUp () {
+		ArrayList<String> lines = new ArrayList<String>();
+		
+		assertEquals(START_POSITION[4], Perft.divide(new CheckersLogic(), 5, lines));
+		assertEquals(7, lines.size());
+	}
+	
+	@Test
+	public void parallel () {
+		assertEquals(START_POSITION[8], Perft.perftParallel(new CheckersLogic(), 9, 4));
+	}
+	
+	@Test
+	public void internationalStartPosition () {
+		InternationalLogic logic = new InternationalLogic();
+		
+		for (int depth = 1; depth <= 7; depth++) {
+			assertEquals("perft(" + depth + ")", INTERNATIONAL_START_POSITION[depth - 1], Perft.perft(logic, depth));
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package test.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import utils.CheckersLogic;
+import utils.LazySmpSearch;
+import utils.Move;
+import utils.PonderSearch;
+import utils.Search;
+import utils.TranspositionTable;
+
+public class PonderSearchTest {
+	@Test
+	public void predictReply () {
+		// The only move that does not lose the piece at once
+		TranspositionTable table = new TranspositionTable(1);
+		long reply = PonderSearch.predictReply(CheckersLogic.fromFen("B:W10:B19"), table);
+		
+		assertEquals("(4, 4) -> (5, 3)", Move.toString(reply));
+	}
+	
+	@Test
+	public void finish () {
+		// Pondering without a limit, the search ends within the budget it gets once the reply is played
+		CheckersLogic logic = new CheckersLogic();
+		TranspositionTable table = new TranspositionTable(1);
+		PonderSearch ponder = new PonderSearch(new LazySmpSearch(logic.copy(), table, 2), logic.getKey(), Search.MAX_DEPTH, Long.MAX_VALUE / 2);
+		
+		long start = System.nanoTime();
+		long move = ponder.finish(100000000L);
+		long elapsed = System.nanoTime() - start;
+		
+		assertTrue(new CheckersLogic().playMove(move));
+		assertTrue(ponder.getDepth() > 0);
+		assertTrue(elapsed < 1000000000L);
+	}
+	
+	@Test
+	public void cancel () {
+		CheckersLogic logic = new CheckersLogic();
+		TranspositionTable table = new TranspositionTable(1);
+		PonderSearch ponder = new PonderSearch(new LazySmpSearch(logic.copy(), table, 2), logic.getKey(), Search.MAX_DEPTH, Long.MAX_VALUE / 2);
+		
+		long start = System.nanoTime();
+		ponder.cancel();
+		
+		assertTrue(System.nanoTime() - start < 1000000000L);
+	}
+	
+	@Test
+	public void stop () {
+		// Stopped right after it starts, the search still ends, and it is not used as the AI's search
+		CheckersLogic logic = new CheckersLogic();
+		TranspositionTable table = new TranspositionTable(1);
+		PonderSearch ponder = new PonderSearch(new LazySmpSearch(logic.copy(), table, 2), logic.getKey(), Search.MAX_DEPTH, Long.MAX_VALUE / 2);
+		
+		long start = System.nanoTime();
+		ponder.stop();
+		
+		assertEquals(0, ponder.finish(Long.MAX_VALUE / 2));
+		assertTrue(System.nanoTime() - start < 1000000000L);
+	}
+}
@@ -0,0 +1,57 @@
+package test.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import utils.PositionHistory;
+
+public class PositionHistoryTest {
+	// Keys that all fall into the same slot of the counting table
+	private static long key (int i) {
+		return (long) i << 10;
+	}
+	
+	@Test
+	public void longGame () {
+		PositionHistory history = new PositionHistory(1000);
+		history.clear(key(0));
+		
+		// Only the look back is counted, however long the game goes on
+		for (int i = 1; i <= 3 * PositionHistory.SIZE; i++) history.push(key(i), true);
+		assertEquals(PositionHistory.LOOK_BACK + 1, history.getSlotCount(0));
+		assertEquals(1, history.getRepetitionCount());
+		
+		// An irreversible move ends the stretch, taking it back counts the stretch again
+		history.push(key(-1), false);
+		assertEquals(1, history.getSlotCount(0));
+		history.pop();
+		assertEquals(PositionHistory.LOOK_BACK + 1, history.getSlotCount(0));
+		
+		// Taking back moves brings the oldest positions of the look back back into the count
+		for (int i = 0; i < PositionHistory.SIZE / 2; i++) history.pop();
+		assertEquals(PositionHistory.LOOK_BACK + 1, history.getSlotCount(0));
+		for (int i = 0; i < PositionHistory.SIZE / 2; i++) history.push(key(i), true);
+		assertEquals(PositionHistory.LOOK_BACK + 1, history.getSlotCount(0));
+	}
+	
+	@Test
+	public void repetitionsInLongGame () {
+		PositionHistory history = new PositionHistory(1000);
+		history.clear(key(0));
+		
+		// Four positions played over and over, each one occurs every four moves
+		for (int i = 1; i <= 2 * PositionHistory.SIZE; i++) {
+			history.push(key(i % 4), true);
+			
+			// A man move every so often starts the count over
+			if (i == PositionHistory.SIZE) {
+				history.push(key(9), false);
+				assertEquals(1, history.getRepetitionCount());
+				assertEquals(1, history.getSlotCount(0));
+			}
+		}
+		assertEquals(PositionHistory.LOOK_BACK / 4 + 1, history.getRepetitionCount());
+		assertEquals(PositionHistory.LOOK_BACK + 1, history.getSlotCount(0));
+	}
+}
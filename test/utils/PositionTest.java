@@ -0,0 +1,61 @@
+package test.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+import utils.CheckersLogic;
+import utils.Fen;
+import utils.MoveGenerator;
+import utils.Position;
+
+public class PositionTest {
+	@Test
+	public void startPosition () {
+		assertEquals(Position.START, new CheckersLogic().getPosition());
+		assertEquals(Position.START, Position.fromFen(Fen.START));
+		assertEquals(Fen.START, Position.START.toFen());
+		assertEquals(new CheckersLogic().getKey(), Position.START.getKey());
+	}
+	
+	@Test
+	public void play () {
+		// Play random games on a game logic and on snapshots side by side
+		Random random = new Random(1);
+		long[] moves = new long[MoveGenerator.MAX_MOVES];
+		
+		for (int game = 0; game < 50; game++) {
+			CheckersLogic logic = new CheckersLogic();
+			Position position = logic.getPosition();
+			
+			for (int ply = 0; ply < 100; ply++) {
+				int moveCount = position.generateMoves(moves, 0);
+				assertEquals(logic.generateMoves(logic.getPlayerTurn(), new long[MoveGenerator.MAX_MOVES], 0), moveCount);
+				if (moveCount == 0) break;
+				
+				long move = moves[random.nextInt(moveCount)];
+				Position before = position;
+				position = position.play(move);
+				logic.playMove(move);
+				
+				assertEquals(logic.getPosition(), position);
+				assertEquals(logic.getKey(), position.getKey());
+				assertEquals(logic.getPlayerTurn(), position.getPlayerTurn());
+				assertEquals(logic.toFen(), position.toFen());
+				assertNotEquals(before, position);
+			}
+		}
+	}
+	
+	@Test
+	public void mapKey () {
+		HashSet<Position> positions = new HashSet<Position>();
+		
+		positions.add(Position.START);
+		assertTrue(positions.contains(new CheckersLogic().getPosition()));
+		assertTrue(!positions.contains(Position.fromFen("B:W1-12:B21-32")));
+	}
+}
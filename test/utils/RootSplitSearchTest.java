@@ -0,0 +1,53 @@
+package test.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import utils.CheckersLogic;
+import utils.Move;
+import utils.RootSplitSearch;
+import utils.Search;
+import utils.TranspositionTable;
+
+public class RootSplitSearchTest {
+	@Test
+	public void sameResult () {
+		// Any amount of threads and any amount of split plies give the move and score of one thread
+		RootSplitSearch reference = new RootSplitSearch(new CheckersLogic(), new TranspositionTable(1), 1);
+		long move = reference.iterate(7, Long.MAX_VALUE / 2);
+		
+		for (int threads = 1; threads <= 4; threads *= 2) {
+			for (int splitPlies = 0; splitPlies <= 2; splitPlies++) {
+				RootSplitSearch search = new RootSplitSearch(new CheckersLogic(), new TranspositionTable(1), threads);
+				search.setSplitPlies(splitPlies);
+				
+				assertEquals(move, search.iterate(7, Long.MAX_VALUE / 2));
+				assertEquals(reference.getScore(), search.getScore());
+				assertEquals(7, search.getDepth());
+			}
+		}
+	}
+	
+	@Test
+	public void matchesSerialScore () {
+		// Splitting the moves does not change the value of the position
+		Search serial = new Search(new CheckersLogic(), new TranspositionTable(1));
+		serial.setDeterministic(true);
+		serial.iterate(6, Long.MAX_VALUE / 2);
+		
+		RootSplitSearch search = new RootSplitSearch(new CheckersLogic(), new TranspositionTable(1), 4);
+		search.iterate(6, Long.MAX_VALUE / 2);
+		
+		assertEquals(serial.getScore(), search.getScore());
+	}
+	
+	@Test
+	public void avoidsLosingThePiece () {
+		RootSplitSearch search = new RootSplitSearch(CheckersLogic.fromFen("B:W10:B19"), new TranspositionTable(1), 2);
+		long move = search.iterate(6, Long.MAX_VALUE / 2);
+		
+		assertEquals("(4, 4) -> (5, 3)", Move.toString(move));
+		assertEquals(0, search.getScore());
+	}
+}
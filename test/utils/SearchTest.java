@@ -0,0 +1,97 @@
+package test.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import utils.CheckersLogic;
+import utils.Move;
+import utils.Search;
+
+public class SearchTest {
+	@Test
+	public void depthLimit () {
+		Search search = new Search(new CheckersLogic());
+		long move = search.iterate(5, Long.MAX_VALUE / 2);
+		
+		assertTrue(new CheckersLogic().playMove(move));
+		assertEquals(5, search.getDepth());
+	}
+	
+	@Test
+	public void timeBudget () {
+		// A depth that is still running at the deadline is abandoned
+		Search search = new Search(new CheckersLogic());
+		long start = System.nanoTime();
+		long move = search.iterate(Search.MAX_DEPTH, 50000000L);
+		long elapsed = System.nanoTime() - start;
+		
+		assertTrue(new CheckersLogic().playMove(move));
+		assertTrue(search.getDepth() > 0 && search.getDepth() < Search.MAX_DEPTH);
+		assertTrue(elapsed < 500000000L);
+	}
+	
+	@Test
+	public void foundWin () {
+		// Either black man can jump the last white piece, the search stops at the win instead of going deeper
+		Search search = new Search(CheckersLogic.fromFen("B:W15:B19,20"));
+		search.iterate(Search.MAX_DEPTH, Long.MAX_VALUE / 2);
+		
+		assertEquals(Search.WIN - 1, search.getScore());
+		assertEquals(1, search.getDepth());
+	}
+	
+	@Test
+	public void pendingCaptures () {
+		// At depth 1 the search still sees that stepping to (3, 3) is answered by a jump
+		Search search = new Search(CheckersLogic.fromFen("B:W10:B19"));
+		long move = search.iterate(1, Long.MAX_VALUE / 2);
+		
+		assertEquals("(4, 4) -> (5, 3)", Move.toString(move));
+		assertEquals(0, search.getScore());
+	}
+	
+	@Test
+	public void forwardPruning () {
+		// Either kind of pruning on or off, the search still finds the safe move and the win
+		for (int mode = 0; mode < 4; mode++) {
+			Search search = new Search(CheckersLogic.fromFen("B:W10:B19"));
+			search.setLateMoveReductions((mode & 1) != 0);
+			search.setProbCut((mode & 2) != 0);
+			
+			assertEquals("(4, 4) -> (5, 3)", Move.toString(search.iterate(8, Long.MAX_VALUE / 2)));
+			
+			search = new Search(CheckersLogic.fromFen("B:W15:B19,20"));
+			search.setLateMoveReductions((mode & 1) != 0);
+			search.setProbCut((mode & 2) != 0);
+			search.iterate(8, Long.MAX_VALUE / 2);
+			assertEquals(Search.WIN - 1, search.getScore());
+		}
+	}
+	
+	@Test
+	public void seed () {
+		CheckersLogic game = new CheckersLogic();
+		long[] moves = new long[game.getMaxMoves()];
+		game.generateMoves(1, moves, 0);
+		
+		// A shallower seed does not skip any depth, the search ends with its own result
+		Search unseeded = new Search(new CheckersLogic());
+		unseeded.setDeterministic(true);
+		unseeded.iterate(6, Long.MAX_VALUE / 2);
+		
+		Search search = new Search(new CheckersLogic());
+		search.setDeterministic(true);
+		assertTrue(search.seed(moves[1], 2, 0));
+		search.iterate(6, Long.MAX_VALUE / 2);
+		assertEquals(6, search.getDepth());
+		assertEquals(unseeded.getScore(), search.getScore());
+		
+		// A deeper seed stays the result
+		search = new Search(new CheckersLogic());
+		assertTrue(search.seed(moves[1], 12, 25));
+		assertEquals(moves[1], search.iterate(4, Long.MAX_VALUE / 2));
+		assertEquals(12, search.getDepth());
+		assertEquals(25, search.getScore());
+	}
+}
@@ -0,0 +1,37 @@
+package test.utils;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import utils.Square;
+
+public class SquareTest {
+	@Test
+	public void testInterned () {
+		assertSame(Square.at(3, 5), Square.at(3, 5));
+		assertSame(Square.of(Square.at(3, 5).index), Square.at(3, 5));
+		assertNull(Square.at(3, 4));
+		assertNull(Square.at(-1, 1));
+	}
+	
+	@Test
+	public void testCoordinates () {
+		Square square = Square.at(6, 2);
+		
+		assertEquals(6, square.x);
+		assertEquals(2, square.y);
+		assertEquals("(6, 2)", square.toString());
+		assertTrue(square.toVector2i().x == 6 && square.toVector2i().y == 2);
+	}
+	
+	@Test
+	public void testMapKey () {
+		Map<Square, String> map = new HashMap<Square, String>();
+		map.put(Square.at(1, 1), "piece");
+		
+		assertEquals("piece", map.get(Square.of(Square.at(1, 1).index)));
+	}
+}
@@ -0,0 +1,97 @@
+package test.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import utils.Search;
+import utils.TranspositionTable;
+
+public class TranspositionTableTest {
+	@Test
+	public void storeAndProbe () {
+		TranspositionTable table = new TranspositionTable(1);
+		long[] entry = new long[2];
+		assertFalse(table.probe(12345L, entry));
+		
+		table.store(12345L, 6, TranspositionTable.LOWER, 250, 99L, 3);
+		
+		assertTrue(table.probe(12345L, entry));
+		assertEquals(99L, entry[0]);
+		assertEquals(6, TranspositionTable.getDepth(entry[1]));
+		assertEquals(TranspositionTable.LOWER, TranspositionTable.getBound(entry[1]));
+		assertEquals(250, TranspositionTable.getScore(entry[1], 3));
+		
+		table.clear();
+		assertFalse(table.probe(12345L, entry));
+	}
+	
+	@Test
+	public void winDistance () {
+		// A win 5 plies below a position stored at ply 3 is still 5 plies away when found at ply 7
+		TranspositionTable table = new TranspositionTable(1);
+		long[] entry = new long[2];
+		table.store(1L, 4, TranspositionTable.EXACT, Search.WIN - 8, 0, 3);
+		
+		assertTrue(table.probe(1L, entry));
+		assertEquals(Search.WIN - 12, TranspositionTable.getScore(entry[1], 7));
+		
+		table.store(1L, 4, TranspositionTable.EXACT, -Search.WIN + 8, 0, 3);
+		assertTrue(table.probe(1L, entry));
+		assertEquals(-Search.WIN + 12, TranspositionTable.getScore(entry[1], 7));
+	}
+	
+	@Test
+	public void replacement () {
+		TranspositionTable table = new TranspositionTable(1);
+		long[] entry = new long[2];
+		
+		// Keys that differ only above the bucket index share a bucket
+		long deep = 7L;
+		long shallow = deep + (1L << 40);
+		long newest = deep + (2L << 40);
+		
+		table.store(deep, 8, TranspositionTable.EXACT, 0, 0, 0);
+		table.store(shallow, 2, TranspositionTable.EXACT, 0, 0, 0);
+		table.store(newest, 1, TranspositionTable.EXACT, 0, 0, 0);
+		
+		// The deepest result stays, the newest replaces the other one
+		assertTrue(table.probe(deep, entry));
+		assertFalse(table.probe(shallow, entry));
+		assertTrue(table.probe(newest, entry));
+		
+		// In a new search the deep result of the old one can be replaced
+		table.newSearch();
+		table.store(shallow, 2, TranspositionTable.EXACT, 0, 0, 0);
+		assertTrue(table.probe(shallow, entry));
+		assertEquals(2, TranspositionTable.getDepth(entry[1]));
+	}
+	
+	@Test
+	public void sharedByThreads () throws InterruptedException {
+		// Threads storing and probing the same keys never get back a result of another key
+		TranspositionTable table = new TranspositionTable(1);
+		Thread[] threads = new Thread[4];
+		boolean[] failed = new boolean[1];
+		
+		for (int t = 0; t < threads.length; t++) {
+			int seed = t;
+			threads[t] = new Thread(() -> {
+				long[] entry = new long[2];
+				for (int i = 0; i < 200000; i++) {
+					long key = ((i * 31L + seed) & 1023) * 0x9E3779B97F4A7C15L;
+					// The move and score of a key are derived from the key, so a wrong result is easy to spot
+					table.store(key, i & 15, TranspositionTable.EXACT, (int) (key & 0xFFFF), key >>> 8, 0);
+					if (table.probe(key ^ 0x5555, entry) || (table.probe(key, entry)
+							&& (entry[0] != key >>> 8 || TranspositionTable.getScore(entry[1], 0) != (int) (key & 0xFFFF)))) {
+						failed[0] = true;
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) thread.join();
+		
+		assertFalse(failed[0]);
+	}
+}
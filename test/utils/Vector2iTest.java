@@ -28,4 +28,13 @@ public class Vector2iTest {
 		
 		assertTrue(test1.equals(test2));
 	}
-}
+	
+	@Test
+	public void testHashCode () {
+		Vector2i test1 = new Vector2i(200, 300);
+		Vector2i test2 = new Vector2i(200, 300);
+		
+		assertTrue(test1.equals(test2));
+		assertEquals(test1.hashCode(), test2.hashCode());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,211 @@
+package utils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Results of deep searches kept on disk between runs of the game, so an opening that has been
+ * analysed before can be played right away. The file sits next to highscores.json.
+ *
+ * The file is a fixed-size table of records (key, best move, score, depth and the depth limit of
+ * the search) indexed by the low bits of the position key mixed with the depth limit, so every
+ * difficulty keeps its own result of a position. The file is memory-mapped the first time it is
+ * needed. Only the pages that are looked up are read from disk, so a large cache does not slow down
+ * the start of the game. New results are collected on the heap and written to the file in batches,
+ * the last batch when flush is called on exit.
+ */
+
+public class AnalysisCache {
+	// Default name of the cache file, in the same directory as highscores.json
+	public static final String FILE = "analysis.bin";
+	
+	// Amount of records in the file, a power of two
+	public static final int SLOTS = 1 << 16;
+	
+	private static final int MAGIC = 0x434B4143;
+	private static final int VERSION = 3;
+	private static final int HEADER_SIZE = 16;
+	
+	// key, move, score, depth and depth limit
+	private static final int RECORD_SIZE = 24;
+	
+	// Amount of results collected before they are written to the file
+	private static final int BATCH_SIZE = 64;
+	
+	/**
+	 * A search result read from the cache.
+	 */
+	public static class Entry {
+		public final long move;
+		public final int depth;
+		public final int maxDepth;
+		public final int score;
+		
+		public Entry (long move, int depth, int maxDepth, int score) {
+			this.move = move;
+			this.depth = depth;
+			this.maxDepth = maxDepth;
+			this.score = score;
+		}
+	}
+	
+	private final String path;
+	private MappedByteBuffer buffer;
+	private boolean isOpen;
+	private boolean isEnabled = true;
+	
+	// Results not written to the file yet
+	private final long[] batchKeys = new long[BATCH_SIZE];
+	private final long[] batchMoves = new long[BATCH_SIZE];
+	private final int[] batchScores = new int[BATCH_SIZE];
+	private final int[] batchDepths = new int[BATCH_SIZE];
+	private final int[] batchMaxDepths = new int[BATCH_SIZE];
+	private int batchCount;
+	
+	/**
+	 * Initialize a cache, the file is only opened when the cache is first used.
+	 * @param path String file of the cache, created if it does not exist
+	 */
+	public AnalysisCache (String path) {
+		this.path = path;
+	}
+	
+	/**
+	 * Turn the cache on or off. A cache that is off finds nothing and stores nothing.
+	 * @param isEnabled boolean
+	 */
+	public synchronized void setEnabled (boolean isEnabled) {
+		this.isEnabled = isEnabled;
+	}
+	
+	/**
+	 * Look up the result of an earlier search of a position with a depth limit.
+	 * @param key long key of the position
+	 * @param maxDepth int depth limit of the search, see store
+	 * @return Entry, null if the position is not in the cache with that limit
+	 */
+	public synchronized Entry lookup (long key, int maxDepth) {
+		if (!isEnabled) return null;
+		
+		// The newest result of the position is the deepest, see store
+		for (int i = batchCount - 1; i >= 0; i--) {
+			if (batchKeys[i] == key && batchMaxDepths[i] == maxDepth) {
+				return new Entry(batchMoves[i], batchDepths[i], batchMaxDepths[i], batchScores[i]);
+			}
+		}
+		
+		if (!open()) return null;
+		
+		int record = recordOffset(key, maxDepth);
+		if (!isRecordOf(record, key, maxDepth) || buffer.getShort(record + 20) == 0) return null;
+		
+		return new Entry(buffer.getLong(record + 8), buffer.getShort(record + 20), buffer.getShort(record + 22), buffer.getInt(record + 16));
+	}
+	
+	/**
+	 * Store the result of a search. A position keeps its deepest result for every depth limit.
+	 * @param key long key of the position
+	 * @param depth int depth the position was searched to, at least 1
+	 * @param maxDepth int depth limit of the search, e.g. of a difficulty, so the result is only used by
+	 *        searches with the same limit
+	 * @param score int score for the player to move
+	 * @param move long best move
+	 */
+	public synchronized void store (long key, int depth, int maxDepth, int score, long move) {
+		if (!isEnabled || move == 0 || depth < 1) return;
+		
+		Entry entry = lookup(key, maxDepth);
+		if (entry != null && entry.depth > depth) return;
+		
+		if (batchCount == BATCH_SIZE) writeBatch();
+		
+		batchKeys[batchCount] = key;
+		batchMoves[batchCount] = move;
+		batchScores[batchCount] = score;
+		batchDepths[batchCount] = depth;
+		batchMaxDepths[batchCount] = maxDepth;
+		batchCount++;
+	}
+	
+	/**
+	 * Write all collected results to the file and make sure they reach the disk, e.g. on exit.
+	 */
+	public synchronized void flush () {
+		if (batchCount == 0 || !open()) return;
+		
+		writeBatch();
+		buffer.force();
+	}
+	
+	/**
+	 * Write the collected results into the mapped file.
+	 */
+	private void writeBatch () {
+		if (open()) {
+			for (int i = 0; i < batchCount; i++) {
+				int record = recordOffset(batchKeys[i], batchMaxDepths[i]);
+				
+				// A slot keeps the deeper result when two positions share it
+				if (!isRecordOf(record, batchKeys[i], batchMaxDepths[i]) && buffer.getShort(record + 20) > batchDepths[i]) continue;
+				
+				buffer.putLong(record, batchKeys[i]);
+				buffer.putLong(record + 8, batchMoves[i]);
+				buffer.putInt(record + 16, batchScores[i]);
+				buffer.putShort(record + 20, (short) batchDepths[i]);
+				buffer.putShort(record + 22, (short) batchMaxDepths[i]);
+			}
+		}
+		batchCount = 0;
+	}
+	
+	/**
+	 * Map the file into memory if that has not happened yet. A file that does not match the format is
+	 * started over. If the file cannot be used, the cache is turned off.
+	 * @return boolean if the file is mapped
+	 */
+	private boolean open () {
+		if (isOpen) return true;
+		if (!isEnabled) return false;
+		
+		long size = HEADER_SIZE + (long) SLOTS * RECORD_SIZE;
+		
+		// The mapping stays valid after the file is closed
+		try (RandomAccessFile file = new RandomAccessFile(path, "rw"); FileChannel channel = file.getChannel()) {
+			boolean isNew = channel.size() != size;
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			
+			if (isNew || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != SLOTS) {
+				for (int i = 0; i < size; i += 8) buffer.putLong(i, 0);
+				buffer.putInt(0, MAGIC);
+				buffer.putInt(4, VERSION);
+				buffer.putInt(8, SLOTS);
+			}
+			
+			isOpen = true;
+		} catch (IOException exception) {
+			exception.printStackTrace();
+			isEnabled = false;
+		}
+		
+		return isOpen;
+	}
+	
+	/**
+	 * Get the position of the record of a key and depth limit in the file. The limit is multiplied
+	 * by an odd constant, so the limits of the difficulties put a position into different slots.
+	 */
+	private static int recordOffset (long key, int maxDepth) {
+		return HEADER_SIZE + (((int) key + maxDepth * 0x9E3779B9) & (SLOTS - 1)) * RECORD_SIZE;
+	}
+	
+	/**
+	 * Check if a record holds the result of a key and depth limit.
+	 */
+	private boolean isRecordOf (int record, long key, int maxDepth) {
+		return buffer.getLong(record) == key && buffer.getShort(record + 22) == maxDepth;
+	}
+}
@@ -0,0 +1,249 @@
+package utils;
+
+/**
+ * Compact representation of a checkers position. Only the 32 playable spaces are stored,
+ * each one as a single bit in a 32-bit mask, so a whole position is three ints.
+ *
+ * Square n maps to row y = n / 4 and column x = (n % 4) * 2 + (y % 2), which matches the
+ * gameBoard[x][y] layout used by CheckersLogic and the game board sub-scene.
+ */
+
+public class Bitboard {
+	public static final int SQUARES = 32;
+	
+	// Starting masks: player 1 (white) on rows 0 - 2, player 2 (black) on rows 5 - 7
+	public static final int WHITE_START = 0x00000FFF;
+	public static final int BLACK_START = 0xFFF00000;
+	
+	// A white piece is crowned on row 7, a black piece on row 0
+	public static final int WHITE_KING_ROW = 0xF0000000;
+	public static final int BLACK_KING_ROW = 0x0000000F;
+	
+	// Directions: 0 = (-1, +1), 1 = (+1, +1), 2 = (-1, -1), 3 = (+1, -1).
+	// Player 1 men move in directions 0 and 1, player 2 men in 2 and 3, kings in all four.
+	public static final int DIRECTIONS = 4;
+	private static final int[] DX = { -1, 1, -1, 1 };
+	private static final int[] DY = { 1, 1, -1, -1 };
+	
+	// Lookup tables indexed by square * DIRECTIONS + direction, -1 where the board ends:
+	// STEP is the neighboring square, JUMP_OVER / JUMP_TO the jumped square and the landing square
+	static final int[] STEP = new int[SQUARES * DIRECTIONS];
+	static final int[] JUMP_OVER = new int[SQUARES * DIRECTIONS];
+	static final int[] JUMP_TO = new int[SQUARES * DIRECTIONS];
+	
+	static {
+		for (int square = 0; square < SQUARES; square++) {
+			for (int direction = 0; direction < DIRECTIONS; direction++) {
+				int x = squareX(square);
+				int y = squareY(square);
+				int index = square * DIRECTIONS + direction;
+				
+				STEP[index] = toSquare(x + DX[direction], y + DY[direction]);
+				
+				int landing = toSquare(x + 2 * DX[direction], y + 2 * DY[direction]);
+				JUMP_OVER[index] = landing < 0 ? -1 : STEP[index];
+				JUMP_TO[index] = landing;
+			}
+		}
+	}
+	
+	// Masks used to shift a whole set of squares one step in a direction. On even rows a
+	// square's neighbors are 3 / 4 (up) and 4 / 5 (down) squares away, on odd rows 4 / 5 and 3 / 4.
+	private static final int EVEN_ROWS = 0x0F0F0F0F;
+	private static final int ODD_ROWS = 0xF0F0F0F0;
+	private static final int NOT_LEFT_COLUMN = 0xEEEEEEEE;
+	private static final int NOT_RIGHT_COLUMN = 0x77777777;
+	
+	int white;
+	int black;
+	int kings;
+	
+	/**
+	 * Initialize with the starting position.
+	 */
+	public Bitboard () {
+		reset();
+	}
+	
+	/**
+	 * Initialize with the given masks.
+	 * @param white int mask of all player 1 pieces
+	 * @param black int mask of all player 2 pieces
+	 * @param kings int mask of all kings (of both players)
+	 */
+	public Bitboard (int white, int black, int kings) {
+		this.white = white;
+		this.black = black;
+		this.kings = kings;
+	}
+	
+	/**
+	 * Reset to the starting position.
+	 */
+	public void reset () {
+		white = WHITE_START;
+		black = BLACK_START;
+		kings = 0;
+	}
+	
+	/**
+	 * Copy the masks of another bitboard into this one.
+	 * @param other Bitboard
+	 */
+	public void copyFrom (Bitboard other) {
+		white = other.white;
+		black = other.black;
+		kings = other.kings;
+	}
+	
+	/**
+	 * Get the mask of all player 1 pieces (men and kings)
+	 * @return int
+	 */
+	public int getWhite () {
+		return white;
+	}
+	
+	/**
+	 * Get the mask of all player 2 pieces (men and kings)
+	 * @return int
+	 */
+	public int getBlack () {
+		return black;
+	}
+	
+	/**
+	 * Get the mask of all kings of both players
+	 * @return int
+	 */
+	public int getKings () {
+		return kings;
+	}
+	
+	/**
+	 * Get the mask of all empty playable spaces
+	 * @return int
+	 */
+	public int getEmpty () {
+		return ~(white | black);
+	}
+	
+	/**
+	 * Move every square of a mask one step in a direction, dropping squares that leave the board.
+	 * @param squares int mask
+	 * @param direction int 0 - 3
+	 * @return int mask of the neighboring squares
+	 */
+	public static int shift (int squares, int direction) {
+		switch (direction) {
+		case 0:
+			return ((squares & EVEN_ROWS & NOT_LEFT_COLUMN) << 3) | ((squares & ODD_ROWS) << 4);
+		case 1:
+			return ((squares & EVEN_ROWS) << 4) | ((squares & ODD_ROWS & NOT_RIGHT_COLUMN) << 5);
+		case 2:
+			return ((squares & EVEN_ROWS & NOT_LEFT_COLUMN) >>> 5) | ((squares & ODD_ROWS) >>> 4);
+		default:
+			return ((squares & EVEN_ROWS) >>> 4) | ((squares & ODD_ROWS & NOT_RIGHT_COLUMN) >>> 3);
+		}
+	}
+	
+	/**
+	 * Convert a x, y coordinate to a square index.
+	 * @param x int
+	 * @param y int
+	 * @return int 0 - 31, or -1 if the space is outside the board or not playable
+	 */
+	public static int toSquare (int x, int y) {
+		if (x < 0 || y < 0 || x > 7 || y > 7 || ((x + y) & 1) != 0) return -1;
+		return (y << 2) | (x >> 1);
+	}
+	
+	/**
+	 * Get the x coordinate of a square index.
+	 * @param square int 0 - 31
+	 * @return int
+	 */
+	public static int squareX (int square) {
+		return ((square & 3) << 1) | ((square >> 2) & 1);
+	}
+	
+	/**
+	 * Get the y coordinate of a square index.
+	 * @param square int 0 - 31
+	 * @return int
+	 */
+	public static int squareY (int square) {
+		return square >> 2;
+	}
+	
+	/**
+	 * Get the value of a space using the int[][] gameBoard values
+	 * (0 empty, 1 / 2 player pieces, 11 / 22 player kings, -1 not playable).
+	 * @param x int
+	 * @param y int
+	 * @return int
+	 */
+	public int getCell (int x, int y) {
+		int square = toSquare(x, y);
+		if (square < 0) return -1;
+		
+		int bit = 1 << square;
+		boolean isKing = (kings & bit) != 0;
+		
+		if ((white & bit) != 0) return isKing ? 11 : 1;
+		if ((black & bit) != 0) return isKing ? 22 : 2;
+		return 0;
+	}
+	
+	/**
+	 * Set the value of a space using the int[][] gameBoard values. Non-playable spaces are ignored.
+	 * @param x int
+	 * @param y int
+	 * @param value int
+	 */
+	public void setCell (int x, int y, int value) {
+		int square = toSquare(x, y);
+		if (square < 0) return;
+		
+		int bit = 1 << square;
+		white &= ~bit;
+		black &= ~bit;
+		kings &= ~bit;
+		
+		if (value == 1 || value == 11) white |= bit;
+		if (value == 2 || value == 22) black |= bit;
+		if (value == 11 || value == 22) kings |= bit;
+	}
+	
+	/**
+	 * Build an int[][] gameBoard view of this position.
+	 * @return int[8][8]
+	 */
+	public int[][] toGameBoard () {
+		int[][] gameBoard = new int[8][8];
+		
+		for (int i = 0; i < 8; i++) {
+			for (int j = 0; j < 8; j++) {
+				gameBoard[i][j] = getCell(i, j);
+			}
+		}
+		
+		return gameBoard;
+	}
+	
+	/**
+	 * Load the position from an int[][] gameBoard.
+	 * @param gameBoard int[8][8]
+	 */
+	public void fromGameBoard (int[][] gameBoard) {
+		white = 0;
+		black = 0;
+		kings = 0;
+		
+		for (int i = 0; i < 8; i++) {
+			for (int j = 0; j < 8; j++) {
+				setCell(i, j, gameBoard[i][j]);
+			}
+		}
+	}
+}
@@ -1,12 +1,11 @@
 package utils;
 
-import java.util.ArrayList;
-
-import javafx.util.Pair;
 import scene.GameDifficulty;
 
 /**
- * A Checkers AI based on the minimax algorithm
+ * A Checkers AI based on the minimax algorithm, searched with alpha-beta and iterative deepening (see Search)
+ * The search only uses GameLogic, so it plays every board size and ruleset (8x8 and 10x10)
+ * The difficulty sets how deep and how long the AI may think
  * 
  * Based on the following Python implementation:
  * https://www.youtube.com/watch?v=RjdrFHEgV2o
@@ -14,195 +13,303 @@ import scene.GameDifficulty;
  *
  */
 public class CheckersAI {
+	// Searches at least this deep are worth keeping in the cache
+	public static final int CACHE_DEPTH = 8;
+	
+	// Longest time the AI ponders on the human's turn, in milliseconds
+	public static final long MAX_PONDER_TIME = 60000;
+	
+	// Transposition table shared by all searches, so results carry over from one move to the next
+	private static final TranspositionTable table = new TranspositionTable(TranspositionTable.DEFAULT_SIZE);
+	
+	// System property with the file of the cache, analysis.bin in the working directory if it is not set
+	public static final String CACHE_FILE_PROPERTY = "checkers.analysisCache";
+	
+	// Results of deep searches of earlier games, kept on disk. The file is only opened when the cache is first used
+	private static final AnalysisCache cache = new AnalysisCache(System.getProperty(CACHE_FILE_PROPERTY, AnalysisCache.FILE));
+	
+	// Depth the last search of each difficulty completed in its time, only changed while holding the table
+	private static final int[] reachedDepths = new int[GameDifficulty.values().length];
+	
+	// Forward pruning of the search, see Search
+	private static volatile boolean useLateMoveReductions = true;
+	private static volatile boolean useProbCut = false;
+	
+	// Threads the search runs on, see LazySmpSearch
+	private static volatile int threads = Runtime.getRuntime().availableProcessors();
+	
+	// Split the work between the threads so every run gives the same move, see RootSplitSearch
+	private static volatile boolean isDeterministic = false;
+	
+	// Search on the human's time, see PonderSearch. Only changed while holding the table, but it can be
+	// stopped at any time
+	private static volatile boolean usePondering = true;
+	private static volatile PonderSearch ponder;
+	
 	/**
 	 * Move function to call the AI.
-	 * @param gameBoard int[][] of the gameboard state
+	 * @param logic CheckersLogic with the game's current state
 	 * @param difficulty difficulty level from GameDifficulty
 	 * @return CheckersAIReturn object with from, to and any jumped enemies.
 	 */
 	public static CheckersAIReturn move (CheckersLogic logic, GameDifficulty difficulty) {
-		
-		// Sets the depth based on the given difficulty (more depth = better AI)
-		int depth = 0;
+		return new CheckersAIReturn(findBestMove(logic, difficulty));
+	}
+	
+	/**
+	 * Move function to call the AI on a position snapshot. The snapshot is immutable, so this
+	 * can run on any thread while the game goes on.
+	 * @param position Position to search from
+	 * @param difficulty difficulty level from GameDifficulty
+	 * @return CheckersAIReturn object with from, to and any jumped enemies.
+	 */
+	public static CheckersAIReturn move (Position position, GameDifficulty difficulty) {
+		// Builds a private game logic from the snapshot for the search to manipulate
+		return new CheckersAIReturn(search(new CheckersLogic(position), difficulty));
+	}
+	
+	/**
+	 * Find the best move of the player to move in any variant.
+	 * @param logic GameLogic with the game's current state, unchanged when this returns
+	 * @param difficulty difficulty level from GameDifficulty
+	 * @return long packed move of the variant, 0 if there is no move
+	 */
+	public static long findBestMove (GameLogic logic, GameDifficulty difficulty) {
+		// Copies the game logic including its history, so the search sees repeated positions
+		return search(logic.copy(), difficulty);
+	}
+	
+	/**
+	 * Get the deepest depth the AI searches at a difficulty.
+	 * @param difficulty GameDifficulty
+	 * @return int
+	 */
+	public static int getMaxDepth (GameDifficulty difficulty) {
 		switch(difficulty) {
 		case EASY:
-			depth = 2;
-			break;
+			return 4;
 		case HARD:
-			depth = 4;
-			break;
+			return Search.MAX_DEPTH;
 		// MEDIUM case
 		default:
-			depth = 3;
-			break;
+			return 8;
 		}
-		
-		// Does a deep copy of the game logic for this class to manipulate
-		CheckersLogic newlogic = deepCopyLogic(logic);
-		
-		// Calls minimax and extracts the new game logic for the game to use
-		Pair<Double, CheckersLogic> minimaxReturn = minimax(newlogic, depth, true);
-		CheckersLogic minimaxLogic = minimaxReturn.getValue();
-		
-		// Gets the piece's original location, and its new location
-		Pair<Vector2i, Vector2i> fromAndToPair = getFromTo(logic, minimaxLogic);
-		Vector2i from = fromAndToPair.getKey();
-		Vector2i to = fromAndToPair.getValue();
-		
-		return new CheckersAIReturn(from, to);
 	}
 	
 	/**
-	 * Given an old and new board, this method finds which piece was moved (from and where to)
-	 * @param oldBoard
-	 * @param newBoard
-	 * @return
+	 * Get the time the AI may think at a difficulty.
+	 * @param difficulty GameDifficulty
+	 * @return long milliseconds
 	 */
-	private static Pair<Vector2i, Vector2i> getFromTo(CheckersLogic oldBoard, CheckersLogic newBoard) {
-		int[][] oldGameBoard = oldBoard.getGameBoard();
-		int[][] newGameBoard = newBoard.getGameBoard();
-		
-		// Initializes these values
-		Vector2i from = new Vector2i(0, 0);
-		Vector2i to   = new Vector2i(1,1);
-		
-		for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-            	// from: found by finding where there used to be a piece
-                if (oldGameBoard[i][j] != 0 && (oldGameBoard[i][j] == 2 || oldGameBoard[i][j] == 22) && newGameBoard[i][j] == 0) from = new Vector2i(i, j);
-                
-                // to: found by finding where a space used to be empty
-                if (newGameBoard[i][j] != 0 && oldGameBoard[i][j] == 0) to = new Vector2i(i, j);
-            }
-        }
-		
-		return new Pair<Vector2i, Vector2i>(from, to);
+	public static long getTimeBudget (GameDifficulty difficulty) {
+		switch(difficulty) {
+		case EASY:
+			return 250;
+		case HARD:
+			return 1500;
+		// MEDIUM case
+		default:
+			return 500;
+		}
 	}
 	
 	/**
-	 * Deep copies the board from the parameter 'gameLogic'
-	 * @param gameLogic
-	 * @return
+	 * Set the size of the transposition table of the AI, this clears it.
+	 * @param megabytes int size in MB, at least 1
 	 */
-	private static CheckersLogic deepCopyLogic(CheckersLogic gameLogic) {
-		// Initializes a new gameboard so we don't have to worry about shared refs
-		CheckersLogic newLogic = new CheckersLogic();
-		
-		newLogic.setGameBoard(gameLogic.getGameBoard());
-		return newLogic;
-	}
-	
-	/**
-	 * Implementation of the minimax algorithm
-	 * The recursion will swap between white and black as each turn is a different player
-	 * Should get a new game board and lower depth as the recursion goes deeper
-	 * @param gameLogic
-	 * @param depth
-	 * @param isBlackPlayer
-	 * @return
-	 */
-	private static Pair<Double, CheckersLogic> minimax(CheckersLogic gameLogic,
-																  int depth,
-																  boolean isBlackPlayer) {
-		// Base case of when recursion reaches the lowest level, or if it finds a case where the AI wins
-		if (depth == 0 || gameLogic.hasWonGame() == 2) {
-			Double evaluation = evaluateBoard(gameLogic);
-			return new Pair<Double, CheckersLogic>(evaluation, deepCopyLogic(gameLogic));
+	public static void setTableSize (int megabytes) {
+		synchronized (table) {
+			cancelPondering();
+			table.resize(megabytes);
 		}
-		
-		// Case for 'white' player
-		if (!isBlackPlayer) {
-			Double maxEvaluation = Double.MIN_VALUE;
-			
-			// Key represents original position, Value represents new position
-			Pair<Vector2i, Vector2i> bestMove = null;
+	}
+	
+	/**
+	 * Switch late move reductions of the search on or off, they are on by default.
+	 * @param isEnabled boolean
+	 */
+	public static void setLateMoveReductions (boolean isEnabled) {
+		useLateMoveReductions = isEnabled;
+	}
+	
+	/**
+	 * Switch ProbCut pruning of the search on or off, it is off by default.
+	 * @param isEnabled boolean
+	 */
+	public static void setProbCut (boolean isEnabled) {
+		useProbCut = isEnabled;
+	}
+	
+	/**
+	 * Set the amount of threads the AI searches on, by default one per processor.
+	 * @param count int at least 1
+	 */
+	public static void setThreads (int count) {
+		if (count < 1) throw new IllegalArgumentException("the search needs at least 1 thread");
+		threads = count;
+	}
+	
+	/**
+	 * Make the AI give the same move for a position on every run, for benchmarks, it is off by default.
+	 * The threads then split up the moves instead of racing each other, without forward pruning and
+	 * without the cache. Only a search that reaches the same depth is repeatable, so this is meant for
+	 * a fixed depth with a time budget that is not used up.
+	 * @param isEnabled boolean
+	 */
+	public static void setDeterministic (boolean isEnabled) {
+		isDeterministic = isEnabled;
+	}
+	
+	/**
+	 * Switch pondering on or off, it is on by default. It is never used in a deterministic search.
+	 * @param isEnabled boolean
+	 */
+	public static void setPondering (boolean isEnabled) {
+		usePondering = isEnabled;
+		if (!isEnabled) stopPondering();
+	}
+	
+	/**
+	 * Start to think on the human's time, after the AI moved: the reply the AI expects is searched in
+	 * the background, and the next call of findBestMove continues that search if the reply was played.
+	 * @param logic GameLogic with the human to move, unchanged when this returns
+	 * @param difficulty difficulty level from GameDifficulty
+	 */
+	public static void ponder (GameLogic logic, GameDifficulty difficulty) {
+		synchronized (table) {
+			cancelPondering();
+			if (!usePondering || isDeterministic) return;
 			
-			// Gets all the white pieces, and finds all of their possible moves
-			for (Vector2i whitePiece : gameLogic.getAllWhitePieces()) {
-				for (Vector2i move : gameLogic.getAllMoves(whitePiece)) {
-					CheckersLogic whiteLogic = deepCopyLogic(gameLogic);
-					
-					// Makes the move for a deepcopied board
-					whiteLogic.move(whitePiece, new ArrayList<Vector2i>() {
-						private static final long serialVersionUID = 1L;
-						{
-							add(move);
-						}});
-					
-					Double evaluation = minimax(whiteLogic, depth-1, true).getKey();
-					
-					// Finds the evaluation that gives a better outcome for the white player
-					maxEvaluation = Math.max(maxEvaluation, evaluation);
-					if (maxEvaluation.equals(evaluation)) {
-						bestMove = new Pair<>(whitePiece, move);
-					}
-				}
-			}
+			GameLogic game = logic.copy();
+			long reply = PonderSearch.predictReply(game, table);
+			if (reply == 0) return;
+			game.makeMove(reply);
 			
-			// Prepare the return value for recursion (by best move)
-			CheckersLogic newMove = deepCopyLogic(gameLogic);
-			ArrayList<Vector2i> newArrayList = new ArrayList<>();
+			LazySmpSearch search = new LazySmpSearch(game, table, threads);
+			search.setLateMoveReductions(useLateMoveReductions);
+			search.setProbCut(useProbCut);
 			
-			newArrayList.add(bestMove != null ? bestMove.getValue() : null);
-			newMove.move(bestMove != null ? bestMove.getKey() : null, newArrayList);
+			AnalysisCache.Entry entry = lookupCache(game.getKey(), getMaxDepth(difficulty));
+			if (entry != null) search.seed(entry.move, entry.depth, entry.score);
 			
-			return new Pair<>(maxEvaluation, newMove);
+			ponder = new PonderSearch(search, game.getKey(), getMaxDepth(difficulty), MAX_PONDER_TIME * 1000000L);
+		}
+	}
+	
+	/**
+	 * Stop thinking on the human's time, e.g. when the game ends. Does not wait for the search,
+	 * so it can be called from the JavaFX thread while the AI is searching.
+	 */
+	public static void stopPondering () {
+		PonderSearch current = ponder;
+		if (current != null) current.stop();
+	}
+	
+	/**
+	 * Stop the ponder search, if there is one. Must be called while holding the table.
+	 */
+	private static void cancelPondering () {
+		if (ponder != null) {
+			ponder.cancel();
+			ponder = null;
+		}
+	}
+	
+	/**
+	 * Turn the cache of analysed positions on or off, see AnalysisCache.
+	 * @param isEnabled boolean
+	 */
+	public static void setCacheEnabled (boolean isEnabled) {
+		cache.setEnabled(isEnabled);
+	}
+	
+	/**
+	 * Write the analysed positions of this run to the cache file, should be called on exit.
+	 */
+	public static void flushCache () {
+		cache.flush();
+	}
+	
+	/**
+	 * Search for the best move of the player to move.
+	 * @param newlogic GameLogic owned by the search
+	 * @param difficulty difficulty level from GameDifficulty
+	 * @return long packed move, 0 if there is no move
+	 */
+	private static long search (GameLogic newlogic, GameDifficulty difficulty) {
+		// The table can only be used by one search at a time
+		synchronized (table) {
+			// The human played the expected reply: the ponder search goes on with the time of a normal search.
+			// Otherwise it is stopped, and this search finds its results in the table
+			long key = newlogic.getKey();
+			int maxDepth = getMaxDepth(difficulty);
+			if (ponder != null && ponder.getKey() == key && !isDeterministic) {
+				PonderSearch pondered = ponder;
+				ponder = null;
+				
+				long move = pondered.finish(getTimeBudget(difficulty) * 1000000L);
+				if (move != 0) {
+					storeCache(key, pondered.getDepth(), maxDepth, pondered.getScore(), move);
+					return move;
+				}
+			}
+			cancelPondering();
 			
-		} 
-		// Case for 'black' player
-		else {
-			Double minEvaluation = Double.MAX_VALUE;
+			if (isDeterministic) {
+				RootSplitSearch search = new RootSplitSearch(newlogic, table, threads);
+				return search.iterate(maxDepth, getTimeBudget(difficulty) * 1000000L);
+			}
 			
-			// Key represents original position, Value represents new position
-			Pair<Vector2i, Vector2i> bestMove = null;
+			LazySmpSearch search = new LazySmpSearch(newlogic, table, threads);
+			search.setLateMoveReductions(useLateMoveReductions);
+			search.setProbCut(useProbCut);
 			
-			// Gets all the black pieces, and finds all of their possible moves
-			for (Vector2i blackPiece : gameLogic.getAllBlackPieces()) {
-				for (Vector2i move : gameLogic.getAllMoves(blackPiece)) {
-					CheckersLogic blackLogic = deepCopyLogic(gameLogic);
-					
-					// Makes the move for a deepcopied board
-					blackLogic.move(blackPiece, new ArrayList<Vector2i>() {
-						private static final long serialVersionUID = 1L;
-						{
-							add(move);
-						}});
-					
-					Double evaluation = minimax(blackLogic, depth-1, false).getKey();
-					
-					// Finds the evaluation that gives a better outcome for the black player
-					minEvaluation = Math.min(minEvaluation, evaluation);
-					if (minEvaluation.equals(evaluation)) {
-						bestMove = new Pair<>(blackPiece, move);
-					}
-				}
+			// A position analysed before as deep as a search of the difficulty gets now is played right
+			// away, otherwise the search continues from the earlier analysis
+			AnalysisCache.Entry entry = lookupCache(key, maxDepth);
+			boolean isSeeded = entry != null && search.seed(entry.move, entry.depth, entry.score);
+			if (isSeeded && entry.depth >= getCachePlayDepth(difficulty)) {
+				return entry.move;
 			}
 			
-			// Prepare the return value for recursion (by best move)
-			CheckersLogic newMove = deepCopyLogic(gameLogic);
-			ArrayList<Vector2i> newArrayList = new ArrayList<>();
+			// Deepens one depth at a time on all threads until the depth or the time of the difficulty is used up
+			long move = search.iterate(maxDepth, getTimeBudget(difficulty) * 1000000L);
+			storeCache(key, search.getDepth(), maxDepth, search.getScore(), move);
 			
-			newArrayList.add(bestMove != null ? bestMove.getValue() : null);
-			newMove.move(bestMove != null ? bestMove.getKey() : null, newArrayList);
+			// A seeded search reports the depth of the seed when it did not get deeper
+			if (!isSeeded && search.getDepth() > 0) reachedDepths[difficulty.ordinal()] = search.getDepth();
 			
-			return new Pair<>(minEvaluation, newMove);
+			return move;
 		}
 	}
 	
 	/**
-	 * Evaluates the board based on white piece and black piece count
-	 * White player wants to maximize the score, while black player wants to minimize it
-	 * 
-	 * AI wants to minimize it, as it is the black player
-	 * 
-	 * Give extra weight to kings
-	 * @param logic
-	 * @return
+	 * Look up an earlier search of a position at the same difficulty. A result of another difficulty
+	 * would make the AI play stronger or weaker than it should.
+	 * @param key long key of the position
+	 * @param maxDepth int depth limit of the difficulty
+	 * @return AnalysisCache.Entry, null if there is none
+	 */
+	private static AnalysisCache.Entry lookupCache (long key, int maxDepth) {
+		// Difficulties that cannot search as deep as the cache keeps do not use it
+		if (maxDepth < CACHE_DEPTH) return null;
+		
+		return cache.lookup(key, maxDepth);
+	}
+	
+	/**
+	 * Get the depth a cached result needs to be played without a search: the depth the last search of
+	 * the difficulty completed in its time, but at least CACHE_DEPTH and at most the depth limit. The
+	 * limit of HARD is far deeper than its time allows, so the limit alone would never be reached.
+	 */
+	private static int getCachePlayDepth (GameDifficulty difficulty) {
+		return Math.min(getMaxDepth(difficulty), Math.max(CACHE_DEPTH, reachedDepths[difficulty.ordinal()]));
+	}
+	
+	/**
+	 * Keep the result of a search in the cache, if it went deep enough.
 	 */
-	private static double evaluateBoard(CheckersLogic logic) {
-		// Gives extra weight to kings
-		double evaluation = logic.getWhitePiecesCount() - logic.getBlackPiecesCount() +
-				(logic.getWhiteKingsCount() * 0.5 - logic.getBlackKingsCount() * 0.5);
-		return evaluation;
+	private static void storeCache (long key, int depth, int maxDepth, int score, long move) {
+		if (depth >= CACHE_DEPTH) cache.store(key, depth, maxDepth, score, move);
 	}
 }
@@ -2,23 +2,39 @@ package utils;
 
 /**
  * Utility class to help with the return variables from the AI algorithm.
+ * The chosen move is kept in its packed form (see Move), which also holds any
+ * chain of jumped pieces and whether the piece is crowned.
  * 
  * @author Andrew Johnston
  *
  */
 
 public class CheckersAIReturn {
-	private Vector2i from;
-	private Vector2i to;
+	private long move;
 	
 	/**
 	 * Constructor to initialize the class
+	 * @param move long packed move, 0 if there is no move
+	 */
+	public CheckersAIReturn (long move) {
+		this.move = move;
+	}
+	
+	/**
+	 * Constructor to initialize the class with a single step
 	 * @param from Vector2i
 	 * @param to Vector2i
 	 */
 	public CheckersAIReturn (Vector2i from, Vector2i to) {
-		this.from = from;
-		this.to = to;
+		this(Move.encode(Bitboard.toSquare(from.x, from.y), Bitboard.toSquare(to.x, to.y), 0, false));
+	}
+	
+	/**
+	 * Get the packed move
+	 * @return long
+	 */
+	public long getMove () {
+		return this.move;
 	}
 	
 	/**
@@ -26,7 +42,7 @@ public class CheckersAIReturn {
 	 * @return Vector2i
 	 */
 	public Vector2i getFrom () {
-		return this.from;
+		return getFromSquare().toVector2i();
 	}
 	
 	/**
@@ -34,6 +50,22 @@ public class CheckersAIReturn {
 	 * @return Vector2i
 	 */
 	public Vector2i getTo () {
-		return this.to;
+		return getToSquare().toVector2i();
+	}
+	
+	/**
+	 * Get the from Square
+	 * @return Square
+	 */
+	public Square getFromSquare () {
+		return Square.of(Move.getFrom(this.move));
+	}
+	
+	/**
+	 * Get the to Square
+	 * @return Square
+	 */
+	public Square getToSquare () {
+		return Square.of(Move.getTo(this.move));
 	}
 }
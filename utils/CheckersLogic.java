@@ -1,21 +1,97 @@
 package utils;
 
 import java.util.ArrayList;
+import java.util.List;
 import scene.GameDifficulty;
 
 /**
- * General logic for the checkers game, including moves, jumping and win conditions
+ * General logic for the checkers game, including moves, jumping and win conditions.
+ * This is the 8x8 variant of GameLogic, see InternationalLogic for 10x10.
  * 
  * @author Shaion Habibvand
  * 
  */
 
-public class CheckersLogic {
-	//gameBoard multidimensional array variable that will be used for all logical operations in checkers program
-	private int[][] gameBoard;
+public class CheckersLogic implements GameLogic {
+	// Deepest amount of moves that can be made with makeMove before they have to be unmade
+	public static final int MAX_PLY = 128;
+	
+	// Moves per player without a capture or a man move before the game is a draw
+	public static final int DEFAULT_NO_PROGRESS_LIMIT = 40;
+	
+	//bitboard position that will be used for all logical operations in checkers program
+	private Bitboard board;
+	
+	//player whose turn it is (1 or 2)
+	private int playerTurn;
+	
+	//Zobrist key of the position, including whose turn it is
+	private long key;
+	
+	//piece counts, kept up to date by every move so they can be read in O(1)
+	private int whitePiecesCount;
+	private int blackPiecesCount;
+	private int whiteKingsCount;
+	private int blackKingsCount;
+	
+	//undo stack for makeMove / unmakeMove, the kings mask is the only board state a move cannot restore on its own
+	private int[] undoKings;
+	private long[] undoKeys;
+	private int undoCount;
+	
+	//keys of the positions played so far, for the repetition and no progress draw rules
+	private PositionHistory history;
 	
 	public CheckersLogic(){
-		initializeGameBoard();
+		board = new Bitboard();
+		playerTurn = 1;
+		key = Zobrist.compute(board, playerTurn);
+		countPieces();
+		undoKings = new int[MAX_PLY];
+		undoKeys = new long[MAX_PLY];
+		history = new PositionHistory(DEFAULT_NO_PROGRESS_LIMIT);
+		history.clear(key);
+	}
+	
+	/**
+	 * Initialize with a given position, e.g. for tests and analysis.
+	 * @param board Bitboard, copied
+	 * @param playerTurn int player whose turn it is (1 or 2)
+	 */
+	public CheckersLogic(Bitboard board, int playerTurn){
+		this.board = new Bitboard(board.white, board.black, board.kings);
+		this.playerTurn = playerTurn;
+		key = Zobrist.compute(this.board, playerTurn);
+		countPieces();
+		undoKings = new int[MAX_PLY];
+		undoKeys = new long[MAX_PLY];
+		history = new PositionHistory(DEFAULT_NO_PROGRESS_LIMIT);
+		history.clear(key);
+	}
+	
+	/**
+	 * Initialize with a position snapshot.
+	 * @param position Position
+	 */
+	public CheckersLogic(Position position){
+		this(new Bitboard(position.getWhite(), position.getBlack(), position.getKings()), position.getPlayerTurn());
+	}
+	
+	/**
+	 * Copy constructor, used for the AI so the position does not have to be rebuilt.
+	 * @param other CheckersLogic
+	 */
+	protected CheckersLogic(CheckersLogic other){
+		board = new Bitboard(other.board.white, other.board.black, other.board.kings);
+		playerTurn = other.playerTurn;
+		key = other.key;
+		whitePiecesCount = other.whitePiecesCount;
+		blackPiecesCount = other.blackPiecesCount;
+		whiteKingsCount = other.whiteKingsCount;
+		blackKingsCount = other.blackKingsCount;
+		undoKings = new int[MAX_PLY];
+		undoKeys = new long[MAX_PLY];
+		history = new PositionHistory(other.history);
 	}
 	
 	//resets gameBoard to being in its original state with all pieces in their original places.
@@ -24,39 +100,50 @@ public class CheckersLogic {
 	}
 	
 	/**
-	 * method that first creates a multidimensional array "gameBoard" and then initializes the "spaces" in the array with numbers that represent whether a piece is there,
-	 * whether the space is empty, or whether the space is not supposed to be a movable space to begin with.
+	 * Puts all pieces back in their original places. The position is kept as a Bitboard where each
+	 * playable space is one bit, the int[][] gameBoard is only built on demand by getGameBoard.
 	 */
 	private void initializeGameBoard () {
-		gameBoard = new int[8][8]; // Checkers has a 8x8 game board configuration
-		
-		// 0  : space is empty
-		// 1  : space has a player 1 piece
-		// 2  : space has a player 2 piece
-		// 11 : stacked player 1 piece (queen/king)
-		// 22 : stacked player 2 piece (queen/king)
-		// -1 : space is invalid (cannot move to this space)
-		for (int i = 0; i < 8; i++) {
-			if (i == 0 || i % 2 == 0) {
-				gameBoard[i][0] = 1;
-				gameBoard[i][1] = -1;
-				gameBoard[i][2] = 1;
-				gameBoard[i][3] = -1;
-				gameBoard[i][4] = 0;
-				gameBoard[i][5] = -1;
-				gameBoard[i][6] = 2;
-				gameBoard[i][7] = -1;
-			} else {
-				gameBoard[i][0] = -1;
-				gameBoard[i][1] = 1;
-				gameBoard[i][2] = -1;
-				gameBoard[i][3] = 0;
-				gameBoard[i][4] = -1;
-				gameBoard[i][5] = 2;
-				gameBoard[i][6] = -1;
-				gameBoard[i][7] = 2;
-			}	
-		}
+		board.reset();
+		playerTurn = 1;
+		key = Zobrist.compute(board, playerTurn);
+		countPieces();
+		undoCount = 0;
+		history.clear(key);
+	}
+	
+	/**
+	 * Create a game from a position string, see Fen.
+	 * @param fen String e.g. Fen.START
+	 * @return CheckersLogic
+	 * @throws IllegalArgumentException if the string is not a valid position
+	 */
+	public static CheckersLogic fromFen (String fen) {
+		CheckersLogic logic = new CheckersLogic();
+		logic.loadFen(fen);
+		return logic;
+	}
+	
+	/**
+	 * Load a position string into this game, see Fen. This barely allocates, so one game can be
+	 * reused to load many positions.
+	 * @param fen String
+	 * @throws IllegalArgumentException if the string is not a valid position, the game is unchanged then
+	 */
+	public void loadFen (String fen) {
+		playerTurn = Fen.parse(fen, board);
+		key = Zobrist.compute(board, playerTurn);
+		countPieces();
+		undoCount = 0;
+		history.clear(key);
+	}
+	
+	/**
+	 * Write the position as a position string, see Fen.
+	 * @return String
+	 */
+	public String toFen () {
+		return Fen.write(board, playerTurn);
 	}
 	
 	/**
@@ -64,68 +151,110 @@ public class CheckersLogic {
 	 * @param board int[][] gameboard
 	 */
 	protected void setGameBoard (int[][] board) {
-		for (int i = 0; i < 8; i++) {
-			for (int j = 0; j < 8; j++) {
-				this.gameBoard[i][j] = board[i][j];
-			}
-		}
+		this.board.fromGameBoard(board);
+		this.key = Zobrist.compute(this.board, playerTurn);
+		countPieces();
+		history.clear(key);
 	}
 	
-	//Getter method for two dimensional array gameBoard variable since it is private.
+	/**
+	 * Get a view of the position as an int[][] gameBoard. The array is built on demand, so
+	 * changing it does not change the game.
+	 * 
+	 * 0  : space is empty
+	 * 1  : space has a player 1 piece
+	 * 2  : space has a player 2 piece
+	 * 11 : stacked player 1 piece (queen/king)
+	 * 22 : stacked player 2 piece (queen/king)
+	 * -1 : space is invalid (cannot move to this space)
+	 * @return int[8][8]
+	 */
 	public int[][] getGameBoard () {
-		return this.gameBoard;
+		return board.toGameBoard();
+	}
+	
+	/**
+	 * Get the bitboard of the current position
+	 * @return Bitboard
+	 */
+	public Bitboard getBitboard () {
+		return board;
+	}
+	
+	/**
+	 * Get the player whose turn it is
+	 * @return int (1 or 2)
+	 */
+	public int getPlayerTurn () {
+		return playerTurn;
+	}
+	
+	/**
+	 * Get an immutable snapshot of the current position, which can be shared freely.
+	 * @return Position
+	 */
+	public Position getPosition () {
+		return new Position(board.white, board.black, board.kings, playerTurn, key);
+	}
+	
+	/**
+	 * Get the 64-bit Zobrist key of the position (pieces and whose turn it is). The key is
+	 * updated with every move, so this is O(1). Equal positions always have equal keys.
+	 * @return long
+	 */
+	public long getKey () {
+		return key;
 	}
 	
 	/**
 	 * Return all white pieces
-	 * @return ArrayList<Vector2i>
+	 * @return ArrayList<Square>
 	 */
-	protected ArrayList<Vector2i> getAllWhitePieces () {
-		ArrayList<Vector2i> list = new ArrayList<Vector2i>();
-		
-		for (int i = 0; i < 8; i++) {
-			for (int j = 0; j < 8; j++) {
-				if (this.gameBoard[i][j] == 1 || this.gameBoard[i][j] == 11) list.add(new Vector2i(i, j));
-			}
-		}
-		
-		return list;
+	protected ArrayList<Square> getAllWhitePieces () {
+		return getAllPieces(board.white);
 	}
 	
 	/**
 	 * Return all black pieces
-	 * @return ArrayList<Vector2i>
+	 * @return ArrayList<Square>
 	 */
-	protected ArrayList<Vector2i> getAllBlackPieces () {
-		ArrayList<Vector2i> list = new ArrayList<Vector2i>();
+	protected ArrayList<Square> getAllBlackPieces () {
+		return getAllPieces(board.black);
+	}
+	
+	/**
+	 * Convert every set bit of a mask to its square
+	 * @param pieces int mask
+	 * @return ArrayList<Square>
+	 */
+	private ArrayList<Square> getAllPieces (int pieces) {
+		ArrayList<Square> list = new ArrayList<Square>();
 		
-		for (int i = 0; i < 8; i++) {
-			for (int j = 0; j < 8; j++) {
-				if (this.gameBoard[i][j] == 2 || this.gameBoard[i][j] == 22) list.add(new Vector2i(i, j));
-			}
+		while (pieces != 0) {
+			list.add(Square.of(Integer.numberOfTrailingZeros(pieces)));
+			pieces &= pieces - 1;
 		}
 		
 		return list;
 	}
 	
+	/**
+	 * Count all pieces from scratch, after the position was set without a move
+	 */
+	private void countPieces () {
+		whitePiecesCount = Integer.bitCount(board.white & ~board.kings);
+		blackPiecesCount = Integer.bitCount(board.black & ~board.kings);
+		whiteKingsCount = Integer.bitCount(board.white & board.kings);
+		blackKingsCount = Integer.bitCount(board.black & board.kings);
+	}
+	
 	/**
 	 * Get the count of white regular pieces
 	 * @return int
 	 */
 	protected int getWhitePiecesCount()
 	{
-		int count = 0;
-		for(int[] s:gameBoard)
-		{
-			for(int isValue:s)
-			{
-				if(isValue==1)
-				{
-					count++;
-				}
-			}
-		}
-		return count;
+		return whitePiecesCount;
 	}
 	
 	/**
@@ -134,18 +263,7 @@ public class CheckersLogic {
 	 */
 	protected int getBlackPiecesCount()
 	{
-		int count = 0;
-		for(int[] s:gameBoard)
-		{
-			for(int isValue:s)
-			{
-				if(isValue==2)
-				{
-					count++;
-				}
-			}
-		}
-		return count;
+		return blackPiecesCount;
 	}
 	
 	/**
@@ -154,18 +272,7 @@ public class CheckersLogic {
 	 */
 	protected int getWhiteKingsCount()
 	{
-		int count = 0;
-		for(int[] s:gameBoard)
-		{
-			for(int isValue:s)
-			{
-				if(isValue==11)
-				{
-					count++;
-				}
-			}
-		}
-		return count;
+		return whiteKingsCount;
 	}
 	
 	/**
@@ -174,18 +281,37 @@ public class CheckersLogic {
 	 */
 	protected int getBlackKingsCount()
 	{
-		int count = 0;
-		for(int[] s:gameBoard)
-		{
-			for(int isValue:s)
-			{
-				if(isValue==22)
-				{
-					count++;
-				}
-			}
-		}
-		return count;
+		return blackKingsCount;
+	}
+	
+	@Override
+	public int getMenCount (int playerTurn) {
+		return playerTurn == 1 ? whitePiecesCount : blackPiecesCount;
+	}
+	
+	@Override
+	public int getKingsCount (int playerTurn) {
+		return playerTurn == 1 ? whiteKingsCount : blackKingsCount;
+	}
+	
+	@Override
+	public int getMaxMoves () {
+		return MoveGenerator.MAX_MOVES;
+	}
+	
+	@Override
+	public int getCaptureCount (long move) {
+		return Integer.bitCount(Move.getCaptures(move));
+	}
+	
+	@Override
+	public int getMoveIndex (long move) {
+		return (Move.getFrom(move) << 6) | Move.getTo(move);
+	}
+	
+	@Override
+	public GameLogic copy () {
+		return new CheckersLogic(this);
 	}
 	
 	/**
@@ -196,27 +322,43 @@ public class CheckersLogic {
 	public ArrayList<Vector2i> getAllMoves(Vector2i coord)
 	{		
 		ArrayList<Vector2i> moves = new ArrayList<Vector2i>();
-		for(int i=0; i<8; i++)
+		Square piece = Square.at(coord.x, coord.y);
+		if(piece == null)
+		{
+			return moves;
+		}
+		
+		int square = piece.index;
+		int playerTurn = (board.white & (1 << square)) != 0 ? 1 : (board.black & (1 << square)) != 0 ? 2 : 0;
+		if(playerTurn == 0)
 		{
-			for(int j=0; j<8; j++)
+			return moves;
+		}
+		
+		long[] buffer = new long[MoveGenerator.MAX_MOVES];
+		int count = MoveGenerator.generate(board, playerTurn, buffer, 0);
+		for(int i=0; i<count; i++)
+		{
+			if(Move.getFrom(buffer[i]) == square)
 			{
-				if(gameBoard[i][j] ==0)
-				{
-					try {
-						if(canMove(coord, new Vector2i(i, j)) != null)
-						{
-							moves.add(new Vector2i(i, j));
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						System.exit(-1);
-					}
-				}
+				moves.add(Square.of(Move.getTo(buffer[i])).toVector2i());
 			}
 		}
 		return moves;
 	}
 	
+	/**
+	 * Write every legal move of a player into a buffer. Jumps are mandatory and are generated as
+	 * complete chains. See MoveGenerator.
+	 * @param playerTurn int (1 or 2)
+	 * @param moves long[] buffer with at least MoveGenerator.MAX_MOVES free entries after offset
+	 * @param offset int first index to write to
+	 * @return int amount of moves written
+	 */
+	public int generateMoves (int playerTurn, long[] moves, int offset) {
+		return MoveGenerator.generate(board, playerTurn, moves, offset);
+	}
+	
 	/**
 	 * Checks whether or not the space is selectable by the current player (e.g. their gamepiece)
 	 * 
@@ -226,13 +368,28 @@ public class CheckersLogic {
 	 * @return boolean
 	 */
 	public boolean isSelectable (int playerTurn, Vector2i coord) {
+		return isSelectable(playerTurn, Square.at(coord.x, coord.y));
+	}
+	
+	/**
+	 * Checks whether or not the square is selectable by the current player (e.g. their gamepiece)
+	 * 
+	 * @param playerTurn The integer value for who's turn it is (1 or 2)
+	 * @param square The square being selected by the current player, null if it is not playable.
+	 * @return boolean
+	 */
+	public boolean isSelectable (int playerTurn, Square square) {
+		if(square == null)
+		{
+			return false;
+		}
 		if(playerTurn ==1)
 		{
-			return gameBoard[coord.x][coord.y] ==1 || gameBoard[coord.x][coord.y] ==11;
+			return (board.white & square.getBit()) != 0;
 		}
 		else if(playerTurn ==2)
 		{
-			return gameBoard[coord.x][coord.y]==2 || gameBoard[coord.x][coord.y]==22;
+			return (board.black & square.getBit()) != 0;
 		}
 		return false;
 	}
@@ -256,178 +413,403 @@ public class CheckersLogic {
 			throw new Exception("Selected space is outside gameboard");
 		}
 		
-		if(gameBoard[from.x][from.y] ==1)
+		int fromSquare = Bitboard.toSquare(from.x, from.y);
+		int toSquare = Bitboard.toSquare(to.x, to.y);
+		if(fromSquare < 0 || toSquare < 0 || (board.getEmpty() & (1 << toSquare)) == 0)
+		{
+			return null;
+		}
+		
+		int fromBit = 1 << fromSquare;
+		boolean isWhite = (board.white & fromBit) != 0;
+		if(!isWhite && (board.black & fromBit) == 0)
+		{
+			return null;
+		}
+		
+		// Men only move forward, kings in all four directions (see Bitboard)
+		boolean isKing = (board.kings & fromBit) != 0;
+		int firstDirection = isKing || isWhite ? 0 : 2;
+		int lastDirection = isKing || !isWhite ? 3 : 1;
+		int opponent = isWhite ? board.black : board.white;
+		
+		for(int direction = firstDirection; direction <= lastDirection; direction++)
 		{
-			if(to.y > from.y)
+			int index = fromSquare * Bitboard.DIRECTIONS + direction;
+			if(Bitboard.STEP[index] == toSquare)
 			{
-				if(gameBoard[to.x][to.y]==0)
-				{
-					if(to.y-from.y ==1 && Math.abs(to.x-from.x)==1)
-					{
-						return from;
-					}
-					else if(to.y-from.y ==2 && Math.abs(to.x-from.x)==2)
-					{
-						if(to.x>from.x)
-						{
-							return gameBoard[from.x+1][from.y+1] ==2 || gameBoard[from.x+1][from.y+1] ==22 ? new Vector2i(from.x + 1, from.y + 1) : null;
-						}
-						else {
-							return gameBoard[from.x-1][from.y+1] ==2 || gameBoard[from.x-1][from.y+1] ==22 ? new Vector2i(from.x - 1, from.y + 1) : null;
-						}
-					}
-				}
+				return from;
 			}
+			if(Bitboard.JUMP_TO[index] == toSquare && (opponent & (1 << Bitboard.JUMP_OVER[index])) != 0)
+			{
+				return Square.of(Bitboard.JUMP_OVER[index]).toVector2i();
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Handles the logic for moving. The move can be singular (e.g. move diagnal one space) to
+	 * a multitude of a chain of jumps. The gameboard should be updated with any eliminated pieces
+	 * as well as the ending location of all moved pieces.
+	 * 
+	 * Only legal moves are accepted, so if a jump is available a jump has to be made. A chain of
+	 * jumps is made by giving every square the piece lands on, or only the square it ends up on if
+	 * no other chain of jumps ends there (see findMove).
+	 * 
+	 * @param currentPiece A Vector2i of the coordinates for the gamepiece that is being moved.
+	 * @param moves Vector2i array of moves
+	 * @return the jumped pieces, the moved piece's original coordinates if nothing was jumped, or an empty list if the move is invalid
+	 */
+	public ArrayList<Vector2i> move (Vector2i currentPiece, ArrayList<Vector2i> moves)
+	{
+		ArrayList<Vector2i> jumped = new ArrayList<Vector2i>();
+		if(moves.isEmpty())
+		{
+			return jumped;
+		}
+		
+		ArrayList<Square> landings = new ArrayList<Square>();
+		for(Vector2i landing : moves)
+		{
+			landings.add(Square.at(landing.x, landing.y));
+		}
+		
+		long move = findMove(Square.at(currentPiece.x, currentPiece.y), landings);
+		if(move == 0 || !playMove(move))
+		{
+			return jumped;
+		}
+		
+		int captures = Move.getCaptures(move);
+		if(captures == 0)
+		{
+			jumped.add(currentPiece);
 		}
-		else if(gameBoard[from.x][from.y] ==11)
+		while(captures != 0)
 		{
-			if(to.y != from.y)
+			jumped.add(Square.of(Integer.numberOfTrailingZeros(captures)).toVector2i());
+			captures &= captures - 1;
+		}
+		return jumped;
+	}
+	
+	/**
+	 * Find the legal move of the piece on a space that ends on another space. For a chain of jumps
+	 * the end is the space the piece ends up on.
+	 * @param from Vector2i coordinates of the piece
+	 * @param to Vector2i coordinates the piece should end on
+	 * @return long the move, or 0 if there is no such legal move or more than one (see findMoves)
+	 */
+	public long findMove (Vector2i from, Vector2i to)
+	{
+		if(from == null || to == null)
+		{
+			return 0;
+		}
+		return findMove(Square.at(from.x, from.y), Square.at(to.x, to.y));
+	}
+	
+	/**
+	 * Find the legal move of the piece on a square that ends on another square. For a chain of jumps
+	 * the end is the square the piece ends up on.
+	 * @param from Square of the piece
+	 * @param to Square the piece should end on
+	 * @return long the move, or 0 if there is no such legal move or more than one (see findMoves)
+	 */
+	public long findMove (Square from, Square to)
+	{
+		long[] moves = new long[MoveGenerator.MAX_MOVES];
+		return findMoves(from, to, moves) == 1 ? moves[0] : 0;
+	}
+	
+	/**
+	 * Find every legal move of the piece on a square that ends on another square. Two chains of
+	 * jumps can end on the same square while jumping different pieces, then there is more than one
+	 * and the squares the piece lands on tell them apart (see findMove with landings).
+	 * @param from Square of the piece
+	 * @param to Square the piece should end on
+	 * @param moves long[] MoveGenerator.MAX_MOVES long, receives the moves
+	 * @return int amount of moves found
+	 */
+	public int findMoves (Square from, Square to, long[] moves)
+	{
+		if(to == null)
+		{
+			return 0;
+		}
+		
+		int count = generatePieceMoves(from, moves);
+		int found = 0;
+		for(int i=0; i<count; i++)
+		{
+			if(Move.getTo(moves[i]) == to.index)
 			{
-				if(gameBoard[to.x][to.y]==0)
-				{
-					if(Math.abs(to.y-from.y) ==1 && Math.abs(to.x-from.x)==1)
-					{
-						return from;
-					}
-					else if(Math.abs(to.y-from.y) ==2 && Math.abs(to.x-from.x)==2)
-					{
-						if(to.x>from.x && to.y>from.y)
-						{
-							return gameBoard[from.x+1][from.y+1] ==2 || gameBoard[from.x+1][from.y+1] ==22 ? new Vector2i(from.x + 1, from.y + 1) : null;
-						}
-						else if(to.x<from.x && to.y>from.y)
-						{
-							return gameBoard[from.x-1][from.y+1] ==2 || gameBoard[from.x-1][from.y+1] ==22 ? new Vector2i(from.x - 1, from.y + 1) : null;
-						}
-						else if(to.x>from.x && to.y<from.y)
-						{
-							return gameBoard[from.x+1][from.y-1] ==2 || gameBoard[from.x+1][from.y-1] ==22 ? new Vector2i(from.x + 1, from.y - 1) : null;
-						}
-						else if(to.x<from.x && to.y<from.y)
-						{
-							return gameBoard[from.x-1][from.y-1] ==2 || gameBoard[from.x-1][from.y-1] ==22 ? new Vector2i(from.x - 1, from.y - 1) : null;
-						}
-					}
-				}
+				moves[found++] = moves[i];
 			}
 		}
-		else if(gameBoard[from.x][from.y] ==2)
+		return found;
+	}
+	
+	/**
+	 * Find the legal move of the piece on a square that lands on the given squares one after the
+	 * other: for a step its end, for a chain of jumps every square it lands on. A single square may
+	 * also be the end of a chain of jumps, as long as no other chain ends there.
+	 * @param from Square of the piece
+	 * @param landings List of Square
+	 * @return long the move, or 0 if there is no such legal move
+	 */
+	public long findMove (Square from, List<Square> landings)
+	{
+		long[] moves = new long[MoveGenerator.MAX_MOVES];
+		int count = generatePieceMoves(from, moves);
+		for(int i=0; i<count; i++)
 		{
-			if(to.y < from.y)
+			if(followsLandings(moves[i], landings, true))
 			{
-				if(gameBoard[to.x][to.y]==0)
-				{
-					if(from.y-to.y ==1 && Math.abs(to.x-from.x)==1)
-					{
-						return from;
-					}
-					else if(from.y-to.y ==2 && Math.abs(to.x-from.x)==2)
-					{
-						if(to.x>from.x)
-						{
-							return gameBoard[from.x+1][from.y-1] ==1 || gameBoard[from.x+1][from.y-1] ==11 ? new Vector2i(from.x + 1, from.y - 1) : null;
-						}
-						else {
-							return gameBoard[from.x-1][from.y-1] ==1 || gameBoard[from.x-1][from.y-1] ==11 ? new Vector2i(from.x - 1, from.y - 1) : null;
-						}
-					}
-				}
+				return moves[i];
 			}
 		}
-		else if(gameBoard[from.x][from.y] ==22)
+		
+		return landings.size() == 1 ? findMove(from, landings.get(0)) : 0;
+	}
+	
+	/**
+	 * Check if the piece on a square can land on the given squares one after the other and then
+	 * still has to jump on, e.g. to let the player click a chain of jumps one jump at a time.
+	 * @param from Square of the piece
+	 * @param landings List of Square
+	 * @return boolean
+	 */
+	public boolean startsMove (Square from, List<Square> landings)
+	{
+		long[] moves = new long[MoveGenerator.MAX_MOVES];
+		int count = generatePieceMoves(from, moves);
+		for(int i=0; i<count; i++)
 		{
-			if(to.y != from.y)
+			if(followsLandings(moves[i], landings, false))
 			{
-				if(gameBoard[to.x][to.y]==0)
-				{
-					if(Math.abs(to.y-from.y) ==1 && Math.abs(to.x-from.x)==1)
-					{
-						return from;
-					}
-					else if(Math.abs(to.y-from.y) ==2 && Math.abs(to.x-from.x)==2)
-					{
-						if(to.x>from.x && to.y>from.y)
-						{
-							return gameBoard[from.x+1][from.y+1] ==1 || gameBoard[from.x+1][from.y+1] ==11 ? new Vector2i(from.x + 1, from.y + 1) : null;
-						}
-						else if(to.x<from.x && to.y>from.y)
-						{
-							return gameBoard[from.x-1][from.y+1] ==1 || gameBoard[from.x-1][from.y+1] ==11 ? new Vector2i(from.x - 1, from.y + 1) : null;
-						}
-						else if(to.x>from.x && to.y<from.y)
-						{
-							return gameBoard[from.x+1][from.y-1] ==1 || gameBoard[from.x+1][from.y-1] ==11 ? new Vector2i(from.x + 1, from.y - 1) : null;
-						}
-						else if(to.x<from.x && to.y<from.y)
-						{
-							return gameBoard[from.x-1][from.y-1] ==1 || gameBoard[from.x-1][from.y-1] ==11 ? new Vector2i(from.x - 1, from.y - 1) : null;
-						}
-					}
-				}
+				return true;
 			}
-		}		
-		return null;
+		}
+		return false;
 	}
 	
 	/**
-	 * Check if a piece should become a king
-	 * @param playerTurn int
-	 * @param coord Vector2i
+	 * Generate the legal moves of the piece on a square, for the player who owns it.
+	 * @param from Square of the piece
+	 * @param moves long[] MoveGenerator.MAX_MOVES long
+	 * @return int amount of moves
+	 */
+	private int generatePieceMoves (Square from, long[] moves)
+	{
+		if(from == null)
+		{
+			return 0;
+		}
+		
+		int playerTurn = (board.white & from.getBit()) != 0 ? 1 : (board.black & from.getBit()) != 0 ? 2 : 0;
+		if(playerTurn == 0)
+		{
+			return 0;
+		}
+		
+		int count = MoveGenerator.generate(board, playerTurn, moves, 0);
+		int found = 0;
+		for(int i=0; i<count; i++)
+		{
+			if(Move.getFrom(moves[i]) == from.index)
+			{
+				moves[found++] = moves[i];
+			}
+		}
+		return found;
+	}
+	
+	/**
+	 * Check if a move lands on the given squares one after the other. Each jump goes over the square
+	 * between two landings, which has to be one of the pieces the move captures.
+	 * @param move long
+	 * @param landings List of Square
+	 * @param isComplete boolean if the landings have to be the whole move, otherwise only its start
+	 *        with jumps left to make
 	 * @return boolean
 	 */
-	private boolean checkIfShouldBecomeKing (int playerTurn, Vector2i coord) {
-		if (playerTurn == 1) {
-			return coord.y == 7;
-		} else {
-			return coord.y == 0;
+	private static boolean followsLandings (long move, List<Square> landings, boolean isComplete)
+	{
+		int captures = Move.getCaptures(move);
+		if(captures == 0)
+		{
+			// A step only has its end, so it cannot be started
+			return isComplete && landings.size() == 1 && landings.get(0) != null && landings.get(0).index == Move.getTo(move);
 		}
+		
+		Square current = Square.of(Move.getFrom(move));
+		for(Square landing : landings)
+		{
+			if(landing == null || Math.abs(landing.x - current.x) != 2 || Math.abs(landing.y - current.y) != 2)
+			{
+				return false;
+			}
+			
+			Square jumped = Square.at((current.x + landing.x) / 2, (current.y + landing.y) / 2);
+			if(jumped == null || (captures & jumped.getBit()) == 0)
+			{
+				return false;
+			}
+			captures &= ~jumped.getBit();
+			current = landing;
+		}
+		
+		return isComplete ? captures == 0 && current.index == Move.getTo(move) : captures != 0;
 	}
 	
 	/**
-	 * Handles the logic for moving. The move can be singular (e.g. move diagnal one space) to
-	 * a multitude of a chain of jumps. The gameboard should be updated with any eliminated pieces
-	 * as well as the ending location of all moved pieces.
-	 * 
-	 * @param gameBoard The current gameboard
-	 * @param currentPiece A Vector2i of the coordinates for the gamepiece that is being moved.
-	 * @param moves Vector2i array of moves
-	 * @return an updated gameBoard
-	 * @throws Exception If the values are out of range or the move is invalid
+	 * Play a move in the game, e.g. one from findMove or from the AI. The move has to be legal for
+	 * the player who owns the moved piece, otherwise nothing happens.
+	 * @param move long
+	 * @return boolean if the move was played
 	 */
-	public ArrayList<Vector2i> move (Vector2i currentPiece, ArrayList<Vector2i> moves)
+	public boolean playMove (long move)
 	{
-		if(currentPiece != null && gameBoard[moves.get(0).x][moves.get(0).y] == 0)
-		{
-			try {
-				Vector2i move = canMove(currentPiece, moves.get(0));
-				if(move != null)
-				{
-					int currentPieceValue = gameBoard[currentPiece.x][currentPiece.y];
-					
-					if (currentPieceValue == 1 || currentPieceValue == 11) {
-						gameBoard[moves.get(0).x][moves.get(0).y] = checkIfShouldBecomeKing(1, moves.get(0)) ? 11 : currentPieceValue;
-					} else if (currentPieceValue == 2 || currentPieceValue == 22) {
-						gameBoard[moves.get(0).x][moves.get(0).y] = checkIfShouldBecomeKing(2, moves.get(0)) ? 22 : currentPieceValue;
-					}
-					
-					gameBoard[currentPiece.x][currentPiece.y]=0;
-					
-					if (move != currentPiece) removeGamePiece(move);
-					
-					return new ArrayList<Vector2i>() {
-						private static final long serialVersionUID = 1L;
-						{
-							add(move);
-						}};
-				} else {
-					return new ArrayList<Vector2i>();
-				}
-			} catch (Exception e) {
-				e.printStackTrace();
-				System.exit(-1);
+		int fromBit = 1 << Move.getFrom(move);
+		int playerTurn = (board.white & fromBit) != 0 ? 1 : (board.black & fromBit) != 0 ? 2 : 0;
+		if(move == 0 || playerTurn == 0)
+		{
+			return false;
+		}
+		
+		long[] buffer = new long[MoveGenerator.MAX_MOVES];
+		int count = MoveGenerator.generate(board, playerTurn, buffer, 0);
+		for(int i=0; i<count; i++)
+		{
+			if(buffer[i] == move)
+			{
+				applyMove(move);
+				return true;
 			}
 		}
-		return new ArrayList<Vector2i>();
+		return false;
+	}
+	
+	/**
+	 * Apply a move created by the MoveGenerator, including promotion and the removal of jumped pieces,
+	 * and give the turn to the other player. The Zobrist key is updated with the squares that changed.
+	 * The move is not checked for legality.
+	 * @param move long
+	 */
+	private void applyMove (long move) {
+		int from = Move.getFrom(move);
+		int to = Move.getTo(move);
+		int fromBit = 1 << from;
+		int toBit = 1 << to;
+		int captures = Move.getCaptures(move);
+		boolean isKing = (board.kings & fromBit) != 0;
+		boolean becomesKing = isKing || Move.isPromotion(move);
+		
+		if((board.white & fromBit) != 0)
+		{
+			key ^= Zobrist.pieceKey(isKing ? Zobrist.WHITE_KING : Zobrist.WHITE_MAN, from)
+					^ Zobrist.pieceKey(becomesKing ? Zobrist.WHITE_KING : Zobrist.WHITE_MAN, to)
+					^ Zobrist.xorAll(Zobrist.BLACK_MAN, captures & ~board.kings)
+					^ Zobrist.xorAll(Zobrist.BLACK_KING, captures & board.kings);
+			
+			blackPiecesCount -= Integer.bitCount(captures & ~board.kings);
+			blackKingsCount -= Integer.bitCount(captures & board.kings);
+			if(becomesKing != isKing)
+			{
+				whitePiecesCount--;
+				whiteKingsCount++;
+			}
+			
+			board.white = (board.white & ~fromBit) | toBit;
+			board.black &= ~captures;
+			setPlayerTurn(2);
+		}
+		else
+		{
+			key ^= Zobrist.pieceKey(isKing ? Zobrist.BLACK_KING : Zobrist.BLACK_MAN, from)
+					^ Zobrist.pieceKey(becomesKing ? Zobrist.BLACK_KING : Zobrist.BLACK_MAN, to)
+					^ Zobrist.xorAll(Zobrist.WHITE_MAN, captures & ~board.kings)
+					^ Zobrist.xorAll(Zobrist.WHITE_KING, captures & board.kings);
+			
+			whitePiecesCount -= Integer.bitCount(captures & ~board.kings);
+			whiteKingsCount -= Integer.bitCount(captures & board.kings);
+			if(becomesKing != isKing)
+			{
+				blackPiecesCount--;
+				blackKingsCount++;
+			}
+			
+			board.black = (board.black & ~fromBit) | toBit;
+			board.white &= ~captures;
+			setPlayerTurn(1);
+		}
+		
+		board.kings = (board.kings & ~fromBit & ~captures) | (becomesKing ? toBit : 0);
+		
+		// Only a king move without captures can be undone by a later move
+		history.push(key, isKing && captures == 0);
+	}
+	
+	/**
+	 * Set whose turn it is, keeping the Zobrist key up to date.
+	 * @param playerTurn int (1 or 2)
+	 */
+	private void setPlayerTurn (int playerTurn) {
+		if (this.playerTurn != playerTurn) key ^= Zobrist.sideKey();
+		this.playerTurn = playerTurn;
+	}
+	
+	/**
+	 * Make a move created by the MoveGenerator in place and pass the turn to the other player.
+	 * The move can be taken back with unmakeMove, moves have to be unmade in reverse order.
+	 * At most MAX_PLY moves can be made before they are unmade.
+	 * @param move long
+	 */
+	public void makeMove (long move) {
+		undoKings[undoCount] = board.kings;
+		undoKeys[undoCount] = key;
+		undoCount++;
+		applyMove(move);
+	}
+	
+	/**
+	 * Take back the last move made with makeMove.
+	 * @param move long the same move that was given to makeMove
+	 */
+	public void unmakeMove (long move) {
+		int fromBit = 1 << Move.getFrom(move);
+		int toBit = 1 << Move.getTo(move);
+		int captures = Move.getCaptures(move);
+		int promoted = Move.isPromotion(move) ? 1 : 0;
+		
+		history.pop();
+		
+		undoCount--;
+		board.kings = undoKings[undoCount];
+		key = undoKeys[undoCount];
+		
+		if((board.white & toBit) != 0)
+		{
+			board.white = (board.white & ~toBit) | fromBit;
+			board.black |= captures;
+			blackPiecesCount += Integer.bitCount(captures & ~board.kings);
+			blackKingsCount += Integer.bitCount(captures & board.kings);
+			whitePiecesCount += promoted;
+			whiteKingsCount -= promoted;
+			playerTurn = 1;
+		}
+		else
+		{
+			board.black = (board.black & ~toBit) | fromBit;
+			board.white |= captures;
+			whitePiecesCount += Integer.bitCount(captures & ~board.kings);
+			whiteKingsCount += Integer.bitCount(captures & board.kings);
+			blackPiecesCount += promoted;
+			blackKingsCount -= promoted;
+			playerTurn = 2;
+		}
 	}
 	
 	/**
@@ -440,31 +822,75 @@ public class CheckersLogic {
 	}
 	
 	/**
-	 * Remove a game piece from the board (e.g. was jumped)
-	 * @param removeMe Vector2i
+	 * Check if the game is a draw: no moves on a specific players turn, the position has been
+	 * repeated three times, or there has been no progress for getNoProgressLimit moves
+	 * @param playerTurn int
+	 * @return boolean
+	 */
+	public boolean checkIfDraw (int playerTurn) {
+		if (playerTurn != 1 && playerTurn != 2) return true;
+		
+		return !hasAnyMove(playerTurn) || isDrawByRepetition() || isDrawByNoProgress();
+	}
+	
+	/**
+	 * Get how often the current position has occurred in the game (with the same player to move),
+	 * counting the current one. Usually O(1), see PositionHistory.
+	 * @return int 1 or more
 	 */
-	private void removeGamePiece (Vector2i removeMe) {
-		gameBoard[removeMe.x][removeMe.y] = 0;
+	public int getRepetitionCount () {
+		return history.getRepetitionCount();
 	}
 	
 	/**
-	 * Check if the game is a draw (no moves on a specific players turn)
-	 * @param playerTurn int
+	 * Check if the current position has occurred three times.
 	 * @return boolean
 	 */
-	public boolean checkIfDraw (int playerTurn) {
-		int amountOfMovesAvailable = 0;
-		
-		for (int i = 0; i < 8; i++) {
-			for (int j = 0; j < 8; j++) {
-				if (playerTurn == 1 && (gameBoard[i][j] == 1 || gameBoard[i][j] == 11)) amountOfMovesAvailable += getAllMoves(new Vector2i(i, j)).size();
-				else if (playerTurn == 2 && (gameBoard[i][j] == 2 || gameBoard[i][j] == 22)) amountOfMovesAvailable += getAllMoves(new Vector2i(i, j)).size();
-				
-				if (amountOfMovesAvailable > 0) return false;
-			}
-		}
-		
-		return true;
+	public boolean isDrawByRepetition () {
+		return getRepetitionCount() >= 3;
+	}
+	
+	/**
+	 * Check if both players have made getNoProgressLimit moves without a capture or a man move.
+	 * @return boolean
+	 */
+	public boolean isDrawByNoProgress () {
+		return history.isDrawByNoProgress();
+	}
+	
+	/**
+	 * Get the amount of moves per player without a capture or a man move that draws the game.
+	 * @return int
+	 */
+	public int getNoProgressLimit () {
+		return history.getNoProgressLimit();
+	}
+	
+	/**
+	 * Set the amount of moves per player without a capture or a man move that draws the game.
+	 * @param moves int, at least 1
+	 */
+	public void setNoProgressLimit (int moves) {
+		history.setNoProgressLimit(moves);
+	}
+	
+	/**
+	 * Check if a player has at least one legal move. This does not generate the moves,
+	 * see MoveGenerator.hasAnyMove.
+	 * @param playerTurn int (1 or 2)
+	 * @return boolean
+	 */
+	public boolean hasAnyMove (int playerTurn) {
+		return MoveGenerator.hasAnyMove(board, playerTurn);
+	}
+	
+	/**
+	 * Check if a player has to jump. This does not generate the moves, see MoveGenerator.hasJump.
+	 * @param playerTurn int (1 or 2)
+	 * @return boolean
+	 */
+	public boolean hasCapture (int playerTurn) {
+		return MoveGenerator.hasJump(board, playerTurn);
 	}
 	
 	/**
@@ -475,11 +901,11 @@ public class CheckersLogic {
 	 * @return Whether or not the game is over
 	 */
 	public int hasWonGame () {
-		if(getWhitePiecesCount()+ getWhiteKingsCount()<=0)
+		if(whitePiecesCount + whiteKingsCount <= 0)
 		{
 			return 2;
 		}
-		else if(getBlackPiecesCount()+ getBlackKingsCount()<=0)
+		else if(blackPiecesCount + blackKingsCount <= 0)
 		{
 			return 1;
 		}
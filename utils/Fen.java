@@ -0,0 +1,251 @@
+package utils;
+
+/**
+ * FEN-style position strings. They have the syntax of PDN positions, but the squares and colours of
+ * this game instead of the standard ones:
+ *
+ *   W:W1,2,3,K18:B21,22,K32
+ *
+ * The first field is the player to move (W = player 1, B = player 2), the other fields list the
+ * pieces of one player each. Squares are numbered 1 - 32 in Bitboard order (square index + 1, so
+ * 1 - 4 is row 0 and 29 - 32 is row 7), a K in front of a number marks a king and a range such as
+ * 1-12 stands for every square in between. Spaces and a trailing '.' are ignored.
+ * The 10x10 board (see InternationalLogic) uses the same format with squares 1 - 50.
+ *
+ * Player 1 starts on the lowest squares and moves first. Standard PDN numbers the squares from the
+ * other side of the board and, on 8x8, calls the player that moves first B. Positions from other
+ * programs, test suites or opening books are translated with fromPdn and toPdn.
+ *
+ * Parsing only allocates a small array for the masks and writing only the returned string, so
+ * large position files can be loaded quickly.
+ */
+
+public class Fen {
+	// The start position, as written by write
+	public static final String START = "W:W1,2,3,4,5,6,7,8,9,10,11,12:B21,22,23,24,25,26,27,28,29,30,31,32";
+	
+	/**
+	 * Parse a position string into a bitboard. The bitboard is only changed if the string is valid.
+	 * @param fen String
+	 * @param board Bitboard that receives the position
+	 * @return int player whose turn it is (1 or 2)
+	 * @throws IllegalArgumentException if the string is not a valid position
+	 */
+	public static int parse (String fen, Bitboard board) {
+		long[] masks = new long[3];
+		int playerTurn = parse(fen, Bitboard.SQUARES, masks);
+		
+		board.white = (int) masks[0];
+		board.black = (int) masks[1];
+		board.kings = (int) masks[2];
+		
+		return playerTurn;
+	}
+	
+	/**
+	 * Parse a position string of a board with any amount of squares (at most 64).
+	 * @param fen String
+	 * @param squares int amount of playable squares of the board
+	 * @param masks long[3] that receives the player 1, player 2 and kings masks, only changed if the string is valid
+	 * @return int player whose turn it is (1 or 2)
+	 * @throws IllegalArgumentException if the string is not a valid position
+	 */
+	public static int parse (String fen, int squares, long[] masks) {
+		int length = fen.length();
+		while (length > 0 && (fen.charAt(length - 1) == '.' || fen.charAt(length - 1) == ' ')) length--;
+		
+		int i = skipSpaces(fen, 0, length);
+		if (i >= length) throw invalid(fen, "missing player to move");
+		
+		int playerTurn = player(fen.charAt(i));
+		if (playerTurn == 0) throw invalid(fen, "player to move must be W or B");
+		i = skipSpaces(fen, i + 1, length);
+		
+		long white = 0;
+		long black = 0;
+		long kings = 0;
+		
+		while (i < length) {
+			if (fen.charAt(i) != ':') throw invalid(fen, "expected ':' at " + i);
+			i = skipSpaces(fen, i + 1, length);
+			if (i >= length) throw invalid(fen, "missing player after ':'");
+			
+			int player = player(fen.charAt(i));
+			if (player == 0) throw invalid(fen, "pieces must belong to W or B at " + i);
+			i = skipSpaces(fen, i + 1, length);
+			
+			// List of [K]square[-square], separated by commas
+			while (i < length && fen.charAt(i) != ':') {
+				boolean isKing = fen.charAt(i) == 'K';
+				if (isKing) i++;
+				
+				int first = 0;
+				int start = i;
+				while (i < length && fen.charAt(i) >= '0' && fen.charAt(i) <= '9') first = first * 10 + fen.charAt(i++) - '0';
+				if (i == start) throw invalid(fen, "expected a square at " + start);
+				
+				int last = first;
+				if (i < length && fen.charAt(i) == '-') {
+					last = 0;
+					start = ++i;
+					while (i < length && fen.charAt(i) >= '0' && fen.charAt(i) <= '9') last = last * 10 + fen.charAt(i++) - '0';
+					if (i == start) throw invalid(fen, "expected a square at " + start);
+				}
+				if (first < 1 || last > squares || first > last) throw invalid(fen, "square out of range before " + i);
+				
+				for (int square = first - 1; square < last; square++) {
+					long bit = 1L << square;
+					if (((white | black) & bit) != 0) throw invalid(fen, "square " + (square + 1) + " is used twice");
+					
+					if (player == 1) white |= bit;
+					else black |= bit;
+					if (isKing) kings |= bit;
+				}
+				
+				i = skipSpaces(fen, i, length);
+				if (i < length && fen.charAt(i) == ',') i = skipSpaces(fen, i + 1, length);
+			}
+		}
+		
+		masks[0] = white;
+		masks[1] = black;
+		masks[2] = kings;
+		
+		return playerTurn;
+	}
+	
+	/**
+	 * Write a position string.
+	 * @param board Bitboard
+	 * @param playerTurn int player whose turn it is (1 or 2)
+	 * @return String
+	 */
+	public static String write (Bitboard board, int playerTurn) {
+		return write(board.white & 0xFFFFFFFFL, board.black & 0xFFFFFFFFL, board.kings & 0xFFFFFFFFL, playerTurn);
+	}
+	
+	/**
+	 * Write a position string of a board with any amount of squares (at most 64).
+	 * @param white long mask of all player 1 pieces
+	 * @param black long mask of all player 2 pieces
+	 * @param kings long mask of all kings
+	 * @param playerTurn int player whose turn it is (1 or 2)
+	 * @return String
+	 */
+	public static String write (long white, long black, long kings, int playerTurn) {
+		StringBuilder builder = new StringBuilder(128);
+		
+		builder.append(playerTurn == 1 ? 'W' : 'B');
+		builder.append(":W");
+		appendSquares(builder, white, kings);
+		builder.append(":B");
+		appendSquares(builder, black, kings);
+		
+		return builder.toString();
+	}
+	
+	/**
+	 * Append the comma separated squares of a mask, with a K in front of kings.
+	 * @param builder StringBuilder
+	 * @param squares long mask
+	 * @param kings long mask
+	 */
+	private static void appendSquares (StringBuilder builder, long squares, long kings) {
+		boolean isFirst = true;
+		
+		while (squares != 0) {
+			int square = Long.numberOfTrailingZeros(squares);
+			squares &= squares - 1;
+			
+			if (!isFirst) builder.append(',');
+			if ((kings & (1L << square)) != 0) builder.append('K');
+			builder.append(square + 1);
+			isFirst = false;
+		}
+	}
+	
+	/**
+	 * Translate a position in standard PDN into the format of parse. On 8x8 (English checkers) B moves
+	 * first from squares 1 - 12, on 10x10 (international draughts) W moves first from squares 31 - 50.
+	 * @param pdn String e.g. "B:W21-32:B1-12", the 8x8 start position
+	 * @param squares int amount of playable squares of the board, 32 or 50
+	 * @return String
+	 * @throws IllegalArgumentException if the string is not a valid position or the board is not supported
+	 */
+	public static String fromPdn (String pdn, int squares) {
+		return translatePdn(pdn, squares);
+	}
+	
+	/**
+	 * Translate a position in the format of write into standard PDN, see fromPdn.
+	 * @param fen String
+	 * @param squares int amount of playable squares of the board, 32 or 50
+	 * @return String
+	 * @throws IllegalArgumentException if the string is not a valid position or the board is not supported
+	 */
+	public static String toPdn (String fen, int squares) {
+		return translatePdn(fen, squares);
+	}
+	
+	/**
+	 * Translate between the squares and colours of this class and those of standard PDN. The
+	 * translation is its own inverse: on 8x8 the squares of each row are numbered from the other side
+	 * and the colours are swapped, on 10x10 the rows are numbered from the other side.
+	 */
+	private static String translatePdn (String fen, int squares) {
+		if (squares != Bitboard.SQUARES && squares != InternationalBitboard.SQUARES) {
+			throw new IllegalArgumentException("PDN is only supported on 32 or 50 squares, not " + squares);
+		}
+		
+		long[] masks = new long[3];
+		int playerTurn = parse(fen, squares, masks);
+		long[] translated = new long[3];
+		
+		for (int i = 0; i < 3; i++) {
+			long mask = masks[i];
+			while (mask != 0) {
+				int square = Long.numberOfTrailingZeros(mask);
+				mask &= mask - 1;
+				
+				int pdnSquare = squares == Bitboard.SQUARES ? (square & ~3) | (3 - (square & 3)) : (9 - square / 5) * 5 + square % 5;
+				translated[i] |= 1L << pdnSquare;
+			}
+		}
+		
+		if (squares == Bitboard.SQUARES) return write(translated[1], translated[0], translated[2], 3 - playerTurn);
+		return write(translated[0], translated[1], translated[2], playerTurn);
+	}
+	
+	/**
+	 * Get the player of a color letter.
+	 * @param color char
+	 * @return int 1 for W, 2 for B, 0 otherwise
+	 */
+	private static int player (char color) {
+		if (color == 'W') return 1;
+		if (color == 'B') return 2;
+		return 0;
+	}
+	
+	/**
+	 * Get the index of the first character from i on that is not a space.
+	 * @param fen String
+	 * @param i int
+	 * @param length int end of the string
+	 * @return int
+	 */
+	private static int skipSpaces (String fen, int i, int length) {
+		while (i < length && fen.charAt(i) == ' ') i++;
+		return i;
+	}
+	
+	/**
+	 * Create the exception thrown for an invalid position string.
+	 * @param fen String
+	 * @param reason String
+	 * @return IllegalArgumentException
+	 */
+	private static IllegalArgumentException invalid (String fen, String reason) {
+		return new IllegalArgumentException("Invalid position \"" + fen + "\": " + reason);
+	}
+}
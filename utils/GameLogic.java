@@ -0,0 +1,118 @@
+package utils;
+
+/**
+ * The rules of a draughts variant as seen by the AI: move generation, make / unmake and the
+ * end of game conditions. Moves are packed longs whose layout belongs to the implementation.
+ *
+ * Each variant is its own class (CheckersLogic for 8x8, InternationalLogic for 10x10) instead of
+ * one class checking the board size everywhere, so every implementation can use the fastest
+ * representation for its board. A game only ever uses one variant, so the JIT sees a single
+ * implementation and inlines the calls.
+ */
+
+public interface GameLogic {
+	/**
+	 * Get the largest amount of moves generateMoves can write for one position.
+	 * @return int
+	 */
+	int getMaxMoves ();
+	
+	/**
+	 * Get the player whose turn it is
+	 * @return int (1 or 2)
+	 */
+	int getPlayerTurn ();
+	
+	/**
+	 * Get the 64-bit Zobrist key of the position (pieces and whose turn it is).
+	 * @return long
+	 */
+	long getKey ();
+	
+	/**
+	 * Write all legal moves of a player into the buffer.
+	 * @param playerTurn int (1 or 2)
+	 * @param moves long[] buffer with at least getMaxMoves free entries after offset
+	 * @param offset int first index to write to
+	 * @return int amount of moves written
+	 */
+	int generateMoves (int playerTurn, long[] moves, int offset);
+	
+	/**
+	 * Check if a player has at least one legal move.
+	 * @param playerTurn int (1 or 2)
+	 * @return boolean
+	 */
+	boolean hasAnyMove (int playerTurn);
+	
+	/**
+	 * Check if a player has to capture, i.e. if all legal moves of the player are captures.
+	 * @param playerTurn int (1 or 2)
+	 * @return boolean
+	 */
+	boolean hasCapture (int playerTurn);
+	
+	/**
+	 * Make a move created by generateMoves in place and pass the turn to the other player.
+	 * @param move long
+	 */
+	void makeMove (long move);
+	
+	/**
+	 * Take back the last move made with makeMove.
+	 * @param move long the same move that was given to makeMove
+	 */
+	void unmakeMove (long move);
+	
+	/**
+	 * Get the amount of pieces a move captures.
+	 * @param move long
+	 * @return int
+	 */
+	int getCaptureCount (long move);
+	
+	/**
+	 * Get an index of a move made from its from- and to-square, for tables indexed by move.
+	 * @param move long
+	 * @return int 0 - 4095
+	 */
+	int getMoveIndex (long move);
+	
+	/**
+	 * Get the amount of men (pieces that are not kings) of a player.
+	 * @param playerTurn int (1 or 2)
+	 * @return int
+	 */
+	int getMenCount (int playerTurn);
+	
+	/**
+	 * Get the amount of kings of a player.
+	 * @param playerTurn int (1 or 2)
+	 * @return int
+	 */
+	int getKingsCount (int playerTurn);
+	
+	/**
+	 * Check if a player has lost all pieces.
+	 * @return int 1 or 2 for the player that has won, -1 otherwise
+	 */
+	int hasWonGame ();
+	
+	/**
+	 * Get how often the current position has occurred in the game, counting the current one.
+	 * @return int 1 or more
+	 */
+	int getRepetitionCount ();
+	
+	/**
+	 * Check if the no progress rule draws the game.
+	 * @return boolean
+	 */
+	boolean isDrawByNoProgress ();
+	
+	/**
+	 * Get a copy of the game, including its history, that can be changed without changing this one.
+	 * @return GameLogic
+	 */
+	GameLogic copy ();
+}
@@ -0,0 +1,143 @@
+package utils;
+
+/**
+ * Compact representation of a 10x10 international draughts position, the counterpart of Bitboard.
+ * The 50 playable spaces are the low 50 bits of a long mask, so a whole position is three longs.
+ *
+ * Square n maps to row y = n / 5 and column x = (n % 5) * 2 + (y % 2), so just like on the 8x8
+ * board (0, 0) is playable, player 1 (white) starts on the low rows and player 2 (black) on the high rows.
+ */
+
+public class InternationalBitboard {
+	public static final int SIZE = 10;
+	public static final int SQUARES = 50;
+	
+	// Starting masks: player 1 (white) on rows 0 - 3, player 2 (black) on rows 6 - 9
+	public static final long WHITE_START = 0x00000000000FFFFFL;
+	public static final long BLACK_START = 0x0003FFFFC0000000L;
+	
+	// A white man is crowned on row 9, a black man on row 0
+	public static final long WHITE_KING_ROW = 0x0003E00000000000L;
+	public static final long BLACK_KING_ROW = 0x000000000000001FL;
+	
+	// Directions as in Bitboard: 0 = (-1, +1), 1 = (+1, +1), 2 = (-1, -1), 3 = (+1, -1)
+	private static final int[] DX = { -1, 1, -1, 1 };
+	private static final int[] DY = { 1, 1, -1, -1 };
+	
+	// The neighboring square, indexed by square * Bitboard.DIRECTIONS + direction, -1 where the board ends.
+	// Following it repeatedly walks a whole diagonal, which is all a flying king needs.
+	static final int[] STEP = new int[SQUARES * Bitboard.DIRECTIONS];
+	
+	static {
+		for (int square = 0; square < SQUARES; square++) {
+			for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+				STEP[square * Bitboard.DIRECTIONS + direction] =
+						toSquare(squareX(square) + DX[direction], squareY(square) + DY[direction]);
+			}
+		}
+	}
+	
+	long white;
+	long black;
+	long kings;
+	
+	/**
+	 * Initialize with the starting position.
+	 */
+	public InternationalBitboard () {
+		reset();
+	}
+	
+	/**
+	 * Initialize with the given masks.
+	 * @param white long mask of all player 1 pieces
+	 * @param black long mask of all player 2 pieces
+	 * @param kings long mask of all kings (of both players)
+	 */
+	public InternationalBitboard (long white, long black, long kings) {
+		this.white = white;
+		this.black = black;
+		this.kings = kings;
+	}
+	
+	/**
+	 * Reset to the starting position.
+	 */
+	public void reset () {
+		white = WHITE_START;
+		black = BLACK_START;
+		kings = 0;
+	}
+	
+	/**
+	 * Get the mask of all player 1 pieces (men and kings)
+	 * @return long
+	 */
+	public long getWhite () {
+		return white;
+	}
+	
+	/**
+	 * Get the mask of all player 2 pieces (men and kings)
+	 * @return long
+	 */
+	public long getBlack () {
+		return black;
+	}
+	
+	/**
+	 * Get the mask of all kings of both players
+	 * @return long
+	 */
+	public long getKings () {
+		return kings;
+	}
+	
+	/**
+	 * Convert a x, y coordinate to a square index.
+	 * @param x int
+	 * @param y int
+	 * @return int 0 - 49, or -1 if the space is outside the board or not playable
+	 */
+	public static int toSquare (int x, int y) {
+		if (x < 0 || y < 0 || x >= SIZE || y >= SIZE || ((x + y) & 1) != 0) return -1;
+		return y * 5 + (x >> 1);
+	}
+	
+	/**
+	 * Get the x coordinate of a square index.
+	 * @param square int 0 - 49
+	 * @return int
+	 */
+	public static int squareX (int square) {
+		return ((square % 5) << 1) | ((square / 5) & 1);
+	}
+	
+	/**
+	 * Get the y coordinate of a square index.
+	 * @param square int 0 - 49
+	 * @return int
+	 */
+	public static int squareY (int square) {
+		return square / 5;
+	}
+	
+	/**
+	 * Get the value of a space using the int[][] gameBoard values
+	 * (0 empty, 1 / 2 player pieces, 11 / 22 player kings, -1 not playable).
+	 * @param x int
+	 * @param y int
+	 * @return int
+	 */
+	public int getCell (int x, int y) {
+		int square = toSquare(x, y);
+		if (square < 0) return -1;
+		
+		long bit = 1L << square;
+		boolean isKing = (kings & bit) != 0;
+		
+		if ((white & bit) != 0) return isKing ? 11 : 1;
+		if ((black & bit) != 0) return isKing ? 22 : 2;
+		return 0;
+	}
+}
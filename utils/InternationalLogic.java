@@ -0,0 +1,314 @@
+package utils;
+
+/**
+ * Logic for 10x10 international draughts, the counterpart of CheckersLogic: moves, make / unmake,
+ * win conditions and the draw rules. See InternationalMoveGenerator for the rules of the moves.
+ */
+
+public class InternationalLogic implements GameLogic {
+	// Deepest amount of moves that can be made with makeMove before they have to be unmade
+	public static final int MAX_PLY = 128;
+	
+	// Moves per player with only kings and without captures before the game is a draw
+	public static final int DEFAULT_NO_PROGRESS_LIMIT = 25;
+	
+	// The start position as a position string (see Fen)
+	public static final String START = "W:W1-20:B31-50";
+	
+	//bitboard position that will be used for all logical operations
+	private InternationalBitboard board;
+	
+	//player whose turn it is (1 or 2)
+	private int playerTurn;
+	
+	//Zobrist key of the position, including whose turn it is
+	private long key;
+	
+	//undo stack for makeMove / unmakeMove, the kings mask is the only board state a move cannot restore on its own
+	private long[] undoKings;
+	private long[] undoKeys;
+	private int undoCount;
+	
+	//keys of the positions played so far, for the repetition and no progress draw rules
+	private PositionHistory history;
+	
+	public InternationalLogic () {
+		this(new InternationalBitboard(), 1);
+	}
+	
+	/**
+	 * Initialize with a given position, e.g. for tests and analysis.
+	 * @param board InternationalBitboard, copied
+	 * @param playerTurn int player whose turn it is (1 or 2)
+	 */
+	public InternationalLogic (InternationalBitboard board, int playerTurn) {
+		this.board = new InternationalBitboard(board.white, board.black, board.kings);
+		this.playerTurn = playerTurn;
+		key = computeKey();
+		undoKings = new long[MAX_PLY];
+		undoKeys = new long[MAX_PLY];
+		history = new PositionHistory(DEFAULT_NO_PROGRESS_LIMIT);
+		history.clear(key);
+	}
+	
+	/**
+	 * Copy constructor, used for the AI so the position does not have to be rebuilt.
+	 * @param other InternationalLogic
+	 */
+	protected InternationalLogic (InternationalLogic other) {
+		board = new InternationalBitboard(other.board.white, other.board.black, other.board.kings);
+		playerTurn = other.playerTurn;
+		key = other.key;
+		undoKings = new long[MAX_PLY];
+		undoKeys = new long[MAX_PLY];
+		history = new PositionHistory(other.history);
+	}
+	
+	/**
+	 * Create a game from a position string, see Fen.
+	 * @param fen String e.g. START
+	 * @return InternationalLogic
+	 * @throws IllegalArgumentException if the string is not a valid position
+	 */
+	public static InternationalLogic fromFen (String fen) {
+		InternationalLogic logic = new InternationalLogic();
+		logic.loadFen(fen);
+		return logic;
+	}
+	
+	/**
+	 * Load a position string into this game, see Fen.
+	 * @param fen String
+	 * @throws IllegalArgumentException if the string is not a valid position, the game is unchanged then
+	 */
+	public void loadFen (String fen) {
+		long[] masks = new long[3];
+		playerTurn = Fen.parse(fen, InternationalBitboard.SQUARES, masks);
+		board.white = masks[0];
+		board.black = masks[1];
+		board.kings = masks[2];
+		key = computeKey();
+		undoCount = 0;
+		history.clear(key);
+	}
+	
+	/**
+	 * Write the position as a position string, see Fen.
+	 * @return String
+	 */
+	public String toFen () {
+		return Fen.write(board.white, board.black, board.kings, playerTurn);
+	}
+	
+	/**
+	 * Reset to the start position.
+	 */
+	public void reset () {
+		board.reset();
+		playerTurn = 1;
+		key = computeKey();
+		undoCount = 0;
+		history.clear(key);
+	}
+	
+	/**
+	 * Get the position. The bitboard belongs to the game, it changes with every move.
+	 * @return InternationalBitboard
+	 */
+	public InternationalBitboard getBitboard () {
+		return board;
+	}
+	
+	@Override
+	public int getPlayerTurn () {
+		return playerTurn;
+	}
+	
+	@Override
+	public long getKey () {
+		return key;
+	}
+	
+	@Override
+	public int getMaxMoves () {
+		return InternationalMoveGenerator.MAX_MOVES;
+	}
+	
+	@Override
+	public int getCaptureCount (long move) {
+		return Long.bitCount(InternationalMove.getCaptures(move));
+	}
+	
+	@Override
+	public int getMoveIndex (long move) {
+		return (InternationalMove.getFrom(move) << 6) | InternationalMove.getTo(move);
+	}
+	
+	@Override
+	public int generateMoves (int playerTurn, long[] moves, int offset) {
+		return InternationalMoveGenerator.generate(board, playerTurn, moves, offset);
+	}
+	
+	@Override
+	public boolean hasAnyMove (int playerTurn) {
+		return InternationalMoveGenerator.hasAnyMove(board, playerTurn);
+	}
+	
+	@Override
+	public boolean hasCapture (int playerTurn) {
+		return InternationalMoveGenerator.hasCapture(board, playerTurn);
+	}
+	
+	/**
+	 * Play a move in the game. The move has to be legal for the player whose turn it is, otherwise nothing happens.
+	 * @param move long
+	 * @return boolean if the move was played
+	 */
+	public boolean playMove (long move) {
+		if (move == 0) return false;
+		
+		long[] buffer = new long[InternationalMoveGenerator.MAX_MOVES];
+		int count = InternationalMoveGenerator.generate(board, playerTurn, buffer, 0);
+		for (int i = 0; i < count; i++) {
+			if (buffer[i] == move) {
+				applyMove(move);
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Apply a move created by the InternationalMoveGenerator, including promotion and the removal of
+	 * captured pieces, and give the turn to the other player. The move is not checked for legality.
+	 * @param move long
+	 */
+	private void applyMove (long move) {
+		int from = InternationalMove.getFrom(move);
+		int to = InternationalMove.getTo(move);
+		long fromBit = 1L << from;
+		long toBit = 1L << to;
+		long captures = InternationalMove.getCaptures(move);
+		boolean isKing = (board.kings & fromBit) != 0;
+		boolean becomesKing = isKing || InternationalMove.isPromotion(move);
+		boolean isWhite = (board.white & fromBit) != 0;
+		
+		int man = isWhite ? Zobrist.WHITE_MAN : Zobrist.BLACK_MAN;
+		int king = isWhite ? Zobrist.WHITE_KING : Zobrist.BLACK_KING;
+		key ^= Zobrist.sideKey()
+				^ Zobrist.pieceKey(isKing ? king : man, from)
+				^ Zobrist.pieceKey(becomesKing ? king : man, to)
+				^ Zobrist.xorAll(isWhite ? Zobrist.BLACK_MAN : Zobrist.WHITE_MAN, captures & ~board.kings)
+				^ Zobrist.xorAll(isWhite ? Zobrist.BLACK_KING : Zobrist.WHITE_KING, captures & board.kings);
+		
+		if (isWhite) {
+			board.white = (board.white & ~fromBit) | toBit;
+			board.black &= ~captures;
+		} else {
+			board.black = (board.black & ~fromBit) | toBit;
+			board.white &= ~captures;
+		}
+		board.kings = (board.kings & ~fromBit & ~captures) | (becomesKing ? toBit : 0);
+		playerTurn = isWhite ? 2 : 1;
+		
+		// Only a king move without captures can be undone by a later move
+		history.push(key, isKing && captures == 0);
+	}
+	
+	@Override
+	public void makeMove (long move) {
+		undoKings[undoCount] = board.kings;
+		undoKeys[undoCount] = key;
+		undoCount++;
+		applyMove(move);
+	}
+	
+	@Override
+	public void unmakeMove (long move) {
+		long fromBit = 1L << InternationalMove.getFrom(move);
+		long toBit = 1L << InternationalMove.getTo(move);
+		long captures = InternationalMove.getCaptures(move);
+		
+		history.pop();
+		
+		undoCount--;
+		board.kings = undoKings[undoCount];
+		key = undoKeys[undoCount];
+		
+		// A piece may end on the square it started from, so clear the to-square before setting the from-square
+		if ((board.white & toBit) != 0) {
+			board.white = (board.white & ~toBit) | fromBit;
+			board.black |= captures;
+			playerTurn = 1;
+		} else {
+			board.black = (board.black & ~toBit) | fromBit;
+			board.white |= captures;
+			playerTurn = 2;
+		}
+	}
+	
+	@Override
+	public int getMenCount (int playerTurn) {
+		return Long.bitCount((playerTurn == 1 ? board.white : board.black) & ~board.kings);
+	}
+	
+	@Override
+	public int getKingsCount (int playerTurn) {
+		return Long.bitCount((playerTurn == 1 ? board.white : board.black) & board.kings);
+	}
+	
+	@Override
+	public int hasWonGame () {
+		if (board.white == 0) return 2;
+		if (board.black == 0) return 1;
+		return -1;
+	}
+	
+	/**
+	 * Check if the game is a draw: no moves on a specific players turn, the position has been
+	 * repeated three times, or there has been no progress for getNoProgressLimit moves
+	 * @param playerTurn int
+	 * @return boolean
+	 */
+	public boolean checkIfDraw (int playerTurn) {
+		return !hasAnyMove(playerTurn) || getRepetitionCount() >= 3 || isDrawByNoProgress();
+	}
+	
+	@Override
+	public int getRepetitionCount () {
+		return history.getRepetitionCount();
+	}
+	
+	@Override
+	public boolean isDrawByNoProgress () {
+		return history.isDrawByNoProgress();
+	}
+	
+	/**
+	 * Set the amount of moves per player without a capture or a man move that draws the game.
+	 * @param moves int, at least 1
+	 */
+	public void setNoProgressLimit (int moves) {
+		history.setNoProgressLimit(moves);
+	}
+	
+	@Override
+	public GameLogic copy () {
+		return new InternationalLogic(this);
+	}
+	
+	/**
+	 * Compute the key of the position from scratch.
+	 * @return long
+	 */
+	private long computeKey () {
+		long key = Zobrist.internationalKey() ^ (playerTurn == 2 ? Zobrist.sideKey() : 0);
+		
+		key ^= Zobrist.xorAll(Zobrist.WHITE_MAN, board.white & ~board.kings);
+		key ^= Zobrist.xorAll(Zobrist.WHITE_KING, board.white & board.kings);
+		key ^= Zobrist.xorAll(Zobrist.BLACK_MAN, board.black & ~board.kings);
+		key ^= Zobrist.xorAll(Zobrist.BLACK_KING, board.black & board.kings);
+		
+		return key;
+	}
+}
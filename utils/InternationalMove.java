@@ -0,0 +1,83 @@
+package utils;
+
+/**
+ * Packs a complete 10x10 move into a single long, the counterpart of Move.
+ *
+ * Bits 0 - 49 hold the mask of captured squares, bits 50 - 55 the from-square,
+ * bits 56 - 61 the to-square (square indices as used by InternationalBitboard) and bit 62 is set
+ * when the move crowns a man. 0 is never a valid move and can be used for "no move".
+ */
+
+public class InternationalMove {
+	private static final long CAPTURES = (1L << InternationalBitboard.SQUARES) - 1;
+	private static final long PROMOTION = 1L << 62;
+	
+	/**
+	 * Pack a move into a long.
+	 * @param from int square the piece starts on
+	 * @param to int square the piece ends on
+	 * @param captures long mask of all captured pieces
+	 * @param isPromotion boolean if a man is crowned by the move
+	 * @return long
+	 */
+	public static long encode (int from, int to, long captures, boolean isPromotion) {
+		return ((long) from << 50) | ((long) to << 56) | (captures & CAPTURES) | (isPromotion ? PROMOTION : 0);
+	}
+	
+	/**
+	 * Get the square the piece starts on.
+	 * @param move long
+	 * @return int
+	 */
+	public static int getFrom (long move) {
+		return (int) (move >>> 50) & 63;
+	}
+	
+	/**
+	 * Get the square the piece ends on.
+	 * @param move long
+	 * @return int
+	 */
+	public static int getTo (long move) {
+		return (int) (move >>> 56) & 63;
+	}
+	
+	/**
+	 * Get the mask of all captured pieces.
+	 * @param move long
+	 * @return long
+	 */
+	public static long getCaptures (long move) {
+		return move & CAPTURES;
+	}
+	
+	/**
+	 * Check if the move captures at least one piece.
+	 * @param move long
+	 * @return boolean
+	 */
+	public static boolean isCapture (long move) {
+		return (move & CAPTURES) != 0;
+	}
+	
+	/**
+	 * Check if the move crowns a man.
+	 * @param move long
+	 * @return boolean
+	 */
+	public static boolean isPromotion (long move) {
+		return (move & PROMOTION) != 0;
+	}
+	
+	/**
+	 * Print a move as its from and to coordinates, e.g. "(0, 2) -> (1, 3)".
+	 * @param move long
+	 * @return String
+	 */
+	public static String toString (long move) {
+		int from = getFrom(move);
+		int to = getTo(move);
+		return "(" + InternationalBitboard.squareX(from) + ", " + InternationalBitboard.squareY(from) + ") -> ("
+				+ InternationalBitboard.squareX(to) + ", " + InternationalBitboard.squareY(to) + ")";
+	}
+}
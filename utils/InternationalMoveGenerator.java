@@ -0,0 +1,227 @@
+package utils;
+
+/**
+ * Generates the legal moves of a 10x10 international draughts position as packed longs (see
+ * InternationalMove), the counterpart of MoveGenerator. The rules that differ from 8x8 checkers:
+ *
+ * - Kings fly: they move any distance along a diagonal, and capture a piece any distance away,
+ *   landing on any empty square behind it.
+ * - Men capture backwards as well as forwards (but still only step forwards).
+ * - Majority capture: out of all capture sequences only the ones capturing the most pieces may be played.
+ * - A man is only crowned if the move ends on the far row, passing it during a capture does not count.
+ */
+
+public class InternationalMoveGenerator {
+	// Most moves a position can have; even positions full of kings stay well below this
+	public static final int MAX_MOVES = 256;
+	
+	private static final long BOARD = (1L << InternationalBitboard.SQUARES) - 1;
+	
+	/**
+	 * Write all legal moves of a player into the buffer.
+	 * @param board InternationalBitboard position
+	 * @param playerTurn int (1 or 2)
+	 * @param moves long[] buffer with at least MAX_MOVES free entries after offset
+	 * @param offset int first index to write to
+	 * @return int amount of moves written
+	 */
+	public static int generate (InternationalBitboard board, int playerTurn, long[] moves, int offset) {
+		long own = playerTurn == 1 ? board.white : board.black;
+		long opponent = playerTurn == 1 ? board.black : board.white;
+		
+		int count = generateCaptures(own, opponent, board.kings, playerTurn, moves, offset);
+		if (count > 0) return count;
+		
+		return generateSteps(own, opponent, board.kings, playerTurn, moves, offset);
+	}
+	
+	/**
+	 * Check if a player has at least one legal move, stopping at the first one found.
+	 * @param board InternationalBitboard position
+	 * @param playerTurn int (1 or 2)
+	 * @return boolean
+	 */
+	public static boolean hasAnyMove (InternationalBitboard board, int playerTurn) {
+		long own = playerTurn == 1 ? board.white : board.black;
+		long opponent = playerTurn == 1 ? board.black : board.white;
+		long empty = ~(own | opponent) & BOARD;
+		
+		long pieces = own;
+		while (pieces != 0) {
+			int from = Long.numberOfTrailingZeros(pieces);
+			pieces &= pieces - 1;
+			
+			boolean isKing = (board.kings & (1L << from)) != 0;
+			
+			for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+				int next = InternationalBitboard.STEP[from * Bitboard.DIRECTIONS + direction];
+				if (next < 0) continue;
+				
+				// A step forwards, or for a king a step in any direction
+				boolean isForward = (direction < 2) == (playerTurn == 1);
+				if ((empty & (1L << next)) != 0 && (isKing || isForward)) return true;
+				
+				// A capture of a neighboring piece, a king also has to be able to reach one further away
+				while (isKing && next >= 0 && (empty & (1L << next)) != 0) {
+					next = InternationalBitboard.STEP[next * Bitboard.DIRECTIONS + direction];
+				}
+				if (next < 0 || (opponent & (1L << next)) == 0) continue;
+				
+				int land = InternationalBitboard.STEP[next * Bitboard.DIRECTIONS + direction];
+				if (land >= 0 && (empty & (1L << land)) != 0) return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Check if a player has at least one capture, i.e. if a capture is forced, without generating any.
+	 * @param board InternationalBitboard position
+	 * @param playerTurn int (1 or 2)
+	 * @return boolean
+	 */
+	public static boolean hasCapture (InternationalBitboard board, int playerTurn) {
+		long own = playerTurn == 1 ? board.white : board.black;
+		long opponent = playerTurn == 1 ? board.black : board.white;
+		long empty = ~(own | opponent) & BOARD;
+		
+		long pieces = own;
+		while (pieces != 0) {
+			int from = Long.numberOfTrailingZeros(pieces);
+			pieces &= pieces - 1;
+			
+			boolean isKing = (board.kings & (1L << from)) != 0;
+			
+			for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+				// A king first flies over the empty squares in front of it
+				int over = InternationalBitboard.STEP[from * Bitboard.DIRECTIONS + direction];
+				while (isKing && over >= 0 && (empty & (1L << over)) != 0) {
+					over = InternationalBitboard.STEP[over * Bitboard.DIRECTIONS + direction];
+				}
+				if (over < 0 || (opponent & (1L << over)) == 0) continue;
+				
+				int land = InternationalBitboard.STEP[over * Bitboard.DIRECTIONS + direction];
+				if (land >= 0 && (empty & (1L << land)) != 0) return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Write the capture sequences of a player that capture the most pieces into the buffer.
+	 * @return int amount of moves written
+	 */
+	private static int generateCaptures (long own, long opponent, long kings, int playerTurn, long[] moves, int offset) {
+		long empty = ~(own | opponent) & BOARD;
+		long promotionRow = playerTurn == 1 ? InternationalBitboard.WHITE_KING_ROW : InternationalBitboard.BLACK_KING_ROW;
+		int count = 0;
+		
+		long pieces = own;
+		while (pieces != 0) {
+			int from = Long.numberOfTrailingZeros(pieces);
+			pieces &= pieces - 1;
+			
+			// The moving piece leaves its square, so it may pass over or land on it again
+			boolean isKing = (kings & (1L << from)) != 0;
+			count = addCaptures(from, from, isKing, opponent, empty | (1L << from), 0, promotionRow, moves, offset, count);
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Follow every capture from a square, recursing until the sequence cannot continue.
+	 * Captured pieces stay on the board until the move is over, so they cannot be captured twice
+	 * and block the way of a king.
+	 * @return int new amount of moves written
+	 */
+	private static int addCaptures (int from, int square, boolean isKing, long opponent, long empty, long captured,
+			long promotionRow, long[] moves, int offset, int count) {
+		boolean hasCaptured = false;
+		
+		for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+			int over = InternationalBitboard.STEP[square * Bitboard.DIRECTIONS + direction];
+			while (isKing && over >= 0 && (empty & (1L << over)) != 0) {
+				over = InternationalBitboard.STEP[over * Bitboard.DIRECTIONS + direction];
+			}
+			if (over < 0 || (opponent & ~captured & (1L << over)) == 0) continue;
+			
+			long newCaptured = captured | (1L << over);
+			int land = InternationalBitboard.STEP[over * Bitboard.DIRECTIONS + direction];
+			
+			// A man lands right behind the captured piece, a king on any empty square behind it
+			while (land >= 0 && (empty & (1L << land)) != 0) {
+				hasCaptured = true;
+				count = addCaptures(from, land, isKing, opponent, empty, newCaptured, promotionRow, moves, offset, count);
+				if (!isKing) break;
+				land = InternationalBitboard.STEP[land * Bitboard.DIRECTIONS + direction];
+			}
+		}
+		
+		if (!hasCaptured && captured != 0) {
+			boolean isPromotion = !isKing && (promotionRow & (1L << square)) != 0;
+			count = addCapture(InternationalMove.encode(from, square, captured, isPromotion), moves, offset, count);
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Write all non-capturing moves of a player into the buffer.
+	 * @return int amount of moves written
+	 */
+	private static int generateSteps (long own, long opponent, long kings, int playerTurn, long[] moves, int offset) {
+		long empty = ~(own | opponent) & BOARD;
+		long promotionRow = playerTurn == 1 ? InternationalBitboard.WHITE_KING_ROW : InternationalBitboard.BLACK_KING_ROW;
+		int count = 0;
+		
+		long pieces = own;
+		while (pieces != 0) {
+			int from = Long.numberOfTrailingZeros(pieces);
+			pieces &= pieces - 1;
+			
+			boolean isKing = (kings & (1L << from)) != 0;
+			int firstDirection = isKing || playerTurn == 1 ? 0 : 2;
+			int lastDirection = isKing || playerTurn == 2 ? 3 : 1;
+			
+			for (int direction = firstDirection; direction <= lastDirection; direction++) {
+				int to = InternationalBitboard.STEP[from * Bitboard.DIRECTIONS + direction];
+				
+				while (to >= 0 && (empty & (1L << to)) != 0 && count < MAX_MOVES) {
+					boolean isPromotion = !isKing && (promotionRow & (1L << to)) != 0;
+					moves[offset + count++] = InternationalMove.encode(from, to, 0, isPromotion);
+					if (!isKing) break;
+					to = InternationalBitboard.STEP[to * Bitboard.DIRECTIONS + direction];
+				}
+			}
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Add a capture sequence to the buffer, keeping only the sequences that capture the most pieces.
+	 * Sequences that capture the same pieces and end on the same square are the same move and only stored once.
+	 * @return int new amount of moves written
+	 */
+	private static int addCapture (long move, long[] moves, int offset, int count) {
+		if (count > 0) {
+			int most = Long.bitCount(InternationalMove.getCaptures(moves[offset]));
+			int captures = Long.bitCount(InternationalMove.getCaptures(move));
+			
+			if (captures < most) return count;
+			if (captures > most) count = 0;
+			
+			for (int i = offset; i < offset + count; i++) {
+				if (moves[i] == move) return count;
+			}
+		}
+		
+		if (count == MAX_MOVES) return count;
+		
+		moves[offset + count] = move;
+		return count + 1;
+	}
+}
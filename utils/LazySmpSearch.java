@@ -0,0 +1,155 @@
+package utils;
+
+/**
+ * A search on several threads (Lazy SMP). Every thread runs its own Search of the same position, and
+ * all of them share one transposition table. The threads do not split up the work; they help each other
+ * through the table: each result one thread stores is a position another thread does not have to
+ * search again. Half of the helper threads start one depth ahead of the others, so the threads are
+ * at different depths and fill the table for each other.
+ *
+ * The table needs no locks, see TranspositionTable. The search with the deepest completed depth
+ * gives the result, the search on the calling thread on a tie.
+ */
+
+public class LazySmpSearch {
+	private final TranspositionTable table;
+	private final Search[] searches;
+	
+	// The search whose result is used
+	private Search result;
+	
+	/**
+	 * Initialize a search.
+	 * @param game GameLogic owned by the search, see GameLogic.copy
+	 * @param table TranspositionTable shared by the threads, must not be used by another search at the same time
+	 * @param threads int amount of threads including the calling one, at least 1
+	 */
+	public LazySmpSearch (GameLogic game, TranspositionTable table, int threads) {
+		this.table = table;
+		
+		searches = new Search[Math.max(1, threads)];
+		for (int i = 0; i < searches.length; i++) {
+			// Every thread makes and unmakes moves on its own copy of the game
+			searches[i] = new Search(i == 0 ? game : game.copy(), table);
+			searches[i].shareTable(1 + (i & 1));
+		}
+		result = searches[0];
+	}
+	
+	/**
+	 * Switch late move reductions on or off in all threads, see Search.
+	 * @param useLateMoveReductions boolean
+	 */
+	public void setLateMoveReductions (boolean useLateMoveReductions) {
+		for (Search search : searches) search.setLateMoveReductions(useLateMoveReductions);
+	}
+	
+	/**
+	 * Switch ProbCut on or off in all threads, see Search.
+	 * @param useProbCut boolean
+	 */
+	public void setProbCut (boolean useProbCut) {
+		for (Search search : searches) search.setProbCut(useProbCut);
+	}
+	
+	/**
+	 * Continue the next call of iterate from an earlier search of the same position, see Search.seed.
+	 * @param move long best move of the earlier search
+	 * @param depth int depth of the earlier search
+	 * @param score int score of the earlier search
+	 * @return boolean false if the move is not legal in the position, the seed is ignored then
+	 */
+	public boolean seed (long move, int depth, int score) {
+		return searches[0].seed(move, depth, score);
+	}
+	
+	/**
+	 * Search the position with iterative deepening on all threads, see Search.iterate. The helper
+	 * threads are stopped as soon as the search on the calling thread is done.
+	 * @param maxDepth int deepest depth to search
+	 * @param timeBudget long nanoseconds
+	 * @return long best packed move, 0 if there is no move
+	 */
+	public long iterate (int maxDepth, long timeBudget) {
+		table.newSearch();
+		
+		Thread[] helpers = new Thread[searches.length - 1];
+		for (int i = 0; i < helpers.length; i++) {
+			Search search = searches[i + 1];
+			helpers[i] = new Thread(() -> search.iterate(maxDepth, timeBudget), "search-helper-" + (i + 1));
+			helpers[i].setDaemon(true);
+			helpers[i].start();
+		}
+		
+		long move = searches[0].iterate(maxDepth, timeBudget);
+		
+		// A helper that had not started its search yet when it was stopped would start over, so it is
+		// stopped until it is done
+		for (int i = 0; i < helpers.length; i++) {
+			try {
+				while (helpers[i].isAlive()) {
+					searches[i + 1].stop();
+					helpers[i].join(10);
+				}
+			} catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		
+		result = searches[0];
+		for (Search search : searches) {
+			if (search.getDepth() > result.getDepth()) result = search;
+		}
+		
+		return result == searches[0] ? move : result.getBestMove();
+	}
+	
+	/**
+	 * Give the running search a new time budget on all threads, counted from now, see Search.setTimeBudget.
+	 * @param timeBudget long nanoseconds
+	 */
+	public void setTimeBudget (long timeBudget) {
+		for (Search search : searches) search.setTimeBudget(timeBudget);
+	}
+	
+	/**
+	 * Stop the search as soon as possible, iterate then stops the helper threads and returns.
+	 */
+	public void stop () {
+		searches[0].stop();
+	}
+	
+	/**
+	 * Stop the search on all threads for good, without waiting for it, see Search.cancel.
+	 */
+	public void cancel () {
+		for (Search search : searches) search.cancel();
+	}
+	
+	/**
+	 * Get the score of the result, for the player to move.
+	 * @return int
+	 */
+	public int getScore () {
+		return result.getScore();
+	}
+	
+	/**
+	 * Get the completed depth of the result.
+	 * @return int
+	 */
+	public int getDepth () {
+		return result.getDepth();
+	}
+	
+	/**
+	 * Get the amount of positions visited by all threads together.
+	 * @return long
+	 */
+	public long getNodes () {
+		long nodes = 0;
+		for (Search search : searches) nodes += search.getNodes();
+		return nodes;
+	}
+}
@@ -0,0 +1,84 @@
+package utils;
+
+/**
+ * Utility class to pack a complete move (including a chain of jumps) into a single long so
+ * moves can be stored in primitive buffers without creating objects.
+ *
+ * Bits 0 - 31 hold the mask of captured squares, bits 32 - 36 the from-square,
+ * bits 37 - 41 the to-square (square indices as used by Bitboard) and bit 42 is set when
+ * the move crowns a man. The captured mask alone needs 32 bits, so a move does not fit an int.
+ * 0 is never a valid move and can be used for "no move".
+ */
+
+public class Move {
+	private static final long PROMOTION = 1L << 42;
+	
+	/**
+	 * Pack a move into a long.
+	 * @param from int square the piece starts on
+	 * @param to int square the piece ends on
+	 * @param captures int mask of all jumped pieces
+	 * @param isPromotion boolean if a man is crowned by the move
+	 * @return long
+	 */
+	public static long encode (int from, int to, int captures, boolean isPromotion) {
+		return ((long) from << 32) | ((long) to << 37) | (captures & 0xFFFFFFFFL) | (isPromotion ? PROMOTION : 0);
+	}
+	
+	/**
+	 * Get the square the piece starts on.
+	 * @param move long
+	 * @return int
+	 */
+	public static int getFrom (long move) {
+		return (int) (move >>> 32) & 31;
+	}
+	
+	/**
+	 * Get the square the piece ends on.
+	 * @param move long
+	 * @return int
+	 */
+	public static int getTo (long move) {
+		return (int) (move >>> 37) & 31;
+	}
+	
+	/**
+	 * Get the mask of all jumped pieces.
+	 * @param move long
+	 * @return int
+	 */
+	public static int getCaptures (long move) {
+		return (int) move;
+	}
+	
+	/**
+	 * Check if the move jumps at least one piece.
+	 * @param move long
+	 * @return boolean
+	 */
+	public static boolean isCapture (long move) {
+		return (int) move != 0;
+	}
+	
+	/**
+	 * Check if the move crowns a man.
+	 * @param move long
+	 * @return boolean
+	 */
+	public static boolean isPromotion (long move) {
+		return (move & PROMOTION) != 0;
+	}
+	
+	/**
+	 * Print a move as its from and to coordinates, e.g. "(0, 2) -> (1, 3)".
+	 * @param move long
+	 * @return String
+	 */
+	public static String toString (long move) {
+		int from = getFrom(move);
+		int to = getTo(move);
+		return "(" + Bitboard.squareX(from) + ", " + Bitboard.squareY(from) + ") -> ("
+				+ Bitboard.squareX(to) + ", " + Bitboard.squareY(to) + ")";
+	}
+}
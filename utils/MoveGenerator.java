@@ -0,0 +1,200 @@
+package utils;
+
+/**
+ * Generates every legal move for one player into a primitive buffer. Jumps are mandatory:
+ * if any piece can jump, only jumps are generated, and a jump always continues until the
+ * piece cannot jump any further. A man that is crowned during a jump ends its move there.
+ *
+ * Nothing is allocated while generating, so this is safe to call at every node of a search.
+ * Neighboring squares come from the lookup tables in Bitboard instead of coordinate checks.
+ */
+
+public class MoveGenerator {
+	/**
+	 * Space a caller should reserve in the buffer for a single call to generate.
+	 */
+	public static final int MAX_MOVES = 128;
+	
+	// The directions a piece can move in (see Bitboard) are firstDirection to lastDirection:
+	// 0 - 1 for player 1 men, 2 - 3 for player 2 men and 0 - 3 for kings.
+	
+	/**
+	 * Write all legal moves of a player into the buffer.
+	 * @param board Bitboard position
+	 * @param playerTurn int (1 or 2)
+	 * @param moves long[] buffer with at least MAX_MOVES free entries after offset
+	 * @param offset int first index to write to
+	 * @return int amount of moves written
+	 */
+	public static int generate (Bitboard board, int playerTurn, long[] moves, int offset) {
+		return generate(board.white, board.black, board.kings, playerTurn, moves, offset);
+	}
+	
+	/**
+	 * Write all legal moves of a player into the buffer, for a position given by its masks.
+	 * @param white int mask of all player 1 pieces
+	 * @param black int mask of all player 2 pieces
+	 * @param kings int mask of all kings
+	 * @param playerTurn int (1 or 2)
+	 * @param moves long[] buffer with at least MAX_MOVES free entries after offset
+	 * @param offset int first index to write to
+	 * @return int amount of moves written
+	 */
+	public static int generate (int white, int black, int kings, int playerTurn, long[] moves, int offset) {
+		int own = playerTurn == 1 ? white : black;
+		int opponent = playerTurn == 1 ? black : white;
+		
+		int count = generateJumps(own, opponent, kings, playerTurn, moves, offset);
+		if (count > 0) return count;
+		
+		return generateSteps(own, opponent, kings, playerTurn, moves, offset);
+	}
+	
+	/**
+	 * Check if a player has at least one legal move, without generating any. All pieces are
+	 * shifted at once per direction (see Bitboard.shift), so this is a handful of bit operations.
+	 * @param board Bitboard position
+	 * @param playerTurn int (1 or 2)
+	 * @return boolean
+	 */
+	public static boolean hasAnyMove (Bitboard board, int playerTurn) {
+		int own = playerTurn == 1 ? board.white : board.black;
+		int empty = ~(board.white | board.black);
+		int forward = playerTurn == 1 ? 0 : 2;
+		int backward = playerTurn == 1 ? 2 : 0;
+		int ownKings = own & board.kings;
+		
+		if ((Bitboard.shift(own, forward) & empty) != 0 || (Bitboard.shift(own, forward + 1) & empty) != 0) return true;
+		if ((Bitboard.shift(ownKings, backward) & empty) != 0 || (Bitboard.shift(ownKings, backward + 1) & empty) != 0) return true;
+		
+		return hasJump(board, playerTurn);
+	}
+	
+	/**
+	 * Check if a player has at least one jump, i.e. if a jump is forced, without generating any.
+	 * @param board Bitboard position
+	 * @param playerTurn int (1 or 2)
+	 * @return boolean
+	 */
+	public static boolean hasJump (Bitboard board, int playerTurn) {
+		int own = playerTurn == 1 ? board.white : board.black;
+		int opponent = playerTurn == 1 ? board.black : board.white;
+		int empty = ~(board.white | board.black);
+		int ownKings = own & board.kings;
+		
+		for (int direction = 0; direction < Bitboard.DIRECTIONS; direction++) {
+			boolean isForward = (direction < 2) == (playerTurn == 1);
+			int movers = isForward ? own : ownKings;
+			
+			if ((Bitboard.shift(Bitboard.shift(movers, direction) & opponent, direction) & empty) != 0) return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Write all jump chains of a player into the buffer.
+	 * @return int amount of moves written
+	 */
+	private static int generateJumps (int own, int opponent, int kings, int playerTurn, long[] moves, int offset) {
+		int empty = ~(own | opponent);
+		int promotionRow = playerTurn == 1 ? Bitboard.WHITE_KING_ROW : Bitboard.BLACK_KING_ROW;
+		int count = 0;
+		
+		int pieces = own;
+		while (pieces != 0) {
+			int from = Integer.numberOfTrailingZeros(pieces);
+			pieces &= pieces - 1;
+			
+			boolean isKing = (kings & (1 << from)) != 0;
+			int firstDirection = isKing || playerTurn == 1 ? 0 : 2;
+			int lastDirection = isKing || playerTurn == 2 ? 3 : 1;
+			
+			// The moving piece leaves its square, so a king may jump back over it
+			count = addJumps(from, from, isKing, firstDirection, lastDirection, opponent, empty | (1 << from),
+					0, promotionRow, moves, offset, count);
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Follow every jump from a square, recursing until the chain cannot continue.
+	 * Jumped pieces stay on the board until the move is over, so they cannot be jumped twice
+	 * and cannot be landed on.
+	 * @return int new amount of moves written
+	 */
+	private static int addJumps (int from, int square, boolean isKing, int firstDirection, int lastDirection,
+			int opponent, int empty, int captured, int promotionRow, long[] moves, int offset, int count) {
+		boolean hasJumped = false;
+		
+		for (int direction = firstDirection; direction <= lastDirection; direction++) {
+			int index = square * Bitboard.DIRECTIONS + direction;
+			int land = Bitboard.JUMP_TO[index];
+			if (land < 0 || (empty & (1 << land)) == 0) continue;
+			
+			int over = Bitboard.JUMP_OVER[index];
+			if ((opponent & ~captured & (1 << over)) == 0) continue;
+			
+			hasJumped = true;
+			int newCaptured = captured | (1 << over);
+			
+			if (!isKing && (promotionRow & (1 << land)) != 0) {
+				count = addMove(Move.encode(from, land, newCaptured, true), moves, offset, count, true);
+			} else {
+				count = addJumps(from, land, isKing, firstDirection, lastDirection, opponent, empty, newCaptured,
+						promotionRow, moves, offset, count);
+			}
+		}
+		
+		if (!hasJumped && captured != 0) count = addMove(Move.encode(from, square, captured, false), moves, offset, count, true);
+		
+		return count;
+	}
+	
+	/**
+	 * Write all single steps of a player into the buffer.
+	 * @return int amount of moves written
+	 */
+	private static int generateSteps (int own, int opponent, int kings, int playerTurn, long[] moves, int offset) {
+		int empty = ~(own | opponent);
+		int promotionRow = playerTurn == 1 ? Bitboard.WHITE_KING_ROW : Bitboard.BLACK_KING_ROW;
+		int count = 0;
+		
+		int pieces = own;
+		while (pieces != 0) {
+			int from = Integer.numberOfTrailingZeros(pieces);
+			pieces &= pieces - 1;
+			
+			boolean isKing = (kings & (1 << from)) != 0;
+			int firstDirection = isKing || playerTurn == 1 ? 0 : 2;
+			int lastDirection = isKing || playerTurn == 2 ? 3 : 1;
+			
+			for (int direction = firstDirection; direction <= lastDirection; direction++) {
+				int to = Bitboard.STEP[from * Bitboard.DIRECTIONS + direction];
+				if (to >= 0 && (empty & (1 << to)) != 0) {
+					boolean isPromotion = !isKing && (promotionRow & (1 << to)) != 0;
+					count = addMove(Move.encode(from, to, 0, isPromotion), moves, offset, count, false);
+				}
+			}
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Add a move to the buffer. Two jump chains of a king can take different paths but capture the
+	 * same pieces and end on the same square; those are the same move and only stored once.
+	 * @return int new amount of moves written
+	 */
+	private static int addMove (long move, long[] moves, int offset, int count, boolean checkDuplicates) {
+		if (checkDuplicates) {
+			for (int i = offset; i < offset + count; i++) {
+				if (moves[i] == move) return count;
+			}
+		}
+		
+		moves[offset + count] = move;
+		return count + 1;
+	}
+}
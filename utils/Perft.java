@@ -0,0 +1,189 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Performance test (perft) for the move generator. Counts the leaf nodes of the game tree to
+ * a given depth, which checks the generator against known counts and measures its speed.
+ *
+ * Usage: java utils.Perft [depth] [divide] [parallel [threads]]
+ */
+
+public class Perft {
+	/**
+	 * Names of the positions returned by getPosition. Besides the start position these exercise
+	 * the tricky parts of the rules.
+	 */
+	public static final String[] POSITION_NAMES = {
+		"start",
+		"forced jump",
+		"king multi-jump with two chains",
+		"man is crowned mid-jump and stops"
+	};
+	
+	/**
+	 * The positions of POSITION_NAMES as position strings (see Fen).
+	 */
+	public static final String[] POSITIONS = {
+		Fen.START,
+		// The man on (2, 2) has to jump (3, 3), stepping with the man on (6, 2) is not allowed
+		"W:W10,12:B14,32",
+		// The king on (1, 1) jumps (2, 2) and can then continue over (4, 4) or over (2, 4)
+		"W:WK5:B10,18,19,K32",
+		// The man on (3, 5) is crowned on (5, 7) and may not go on to jump (6, 6)
+		"W:W1,22:BK8,27,28"
+	};
+	
+	/**
+	 * Run perft from the start position and the tricky positions.
+	 * @param args [depth] [divide] [parallel [threads]]
+	 */
+	public static void main (String[] args) {
+		int depth = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+		boolean divide = false;
+		int threads = 0;
+		
+		for (int i = 1; i < args.length; i++) {
+			if (args[i].equals("divide")) divide = true;
+			if (args[i].equals("parallel")) {
+				threads = i + 1 < args.length ? Integer.parseInt(args[i + 1]) : Runtime.getRuntime().availableProcessors();
+			}
+		}
+		
+		for (int i = 0; i < POSITION_NAMES.length; i++) {
+			CheckersLogic logic = getPosition(i);
+			System.out.println("Position: " + POSITION_NAMES[i]);
+			
+			if (divide) {
+				ArrayList<String> lines = new ArrayList<String>();
+				divide(logic, depth, lines);
+				for (String line : lines) System.out.println("  " + line);
+			}
+			
+			long start = System.nanoTime();
+			long nodes = threads > 0 ? perftParallel(logic, depth, threads) : perft(logic, depth);
+			long nanos = Math.max(1, System.nanoTime() - start);
+			
+			System.out.println("  perft(" + depth + ") = " + nodes + " in " + (nanos / 1000000) + " ms, "
+					+ (long) (nodes * 1e9 / nanos) + " nodes/s");
+		}
+	}
+	
+	/**
+	 * Get one of the positions in POSITION_NAMES.
+	 * @param index int
+	 * @return CheckersLogic
+	 */
+	public static CheckersLogic getPosition (int index) {
+		return CheckersLogic.fromFen(POSITIONS[index]);
+	}
+	
+	/**
+	 * Count the leaf nodes of the game tree below a position, of any variant.
+	 * @param logic GameLogic, unchanged when this returns
+	 * @param depth int
+	 * @return long
+	 */
+	public static long perft (GameLogic logic, int depth) {
+		if (depth <= 0) return 1;
+		return perft(logic, depth, new long[(depth + 1) * logic.getMaxMoves()]);
+	}
+	
+	/**
+	 * Recursive part of perft, every depth uses its own slice of the move buffer.
+	 */
+	private static long perft (GameLogic logic, int depth, long[] moveBuffer) {
+		int offset = depth * logic.getMaxMoves();
+		int count = logic.generateMoves(logic.getPlayerTurn(), moveBuffer, offset);
+		
+		// The moves of the last depth do not have to be made to be counted
+		if (depth == 1) return count;
+		
+		long nodes = 0;
+		for (int i = offset; i < offset + count; i++) {
+			logic.makeMove(moveBuffer[i]);
+			nodes += perft(logic, depth - 1, moveBuffer);
+			logic.unmakeMove(moveBuffer[i]);
+		}
+		
+		return nodes;
+	}
+	
+	/**
+	 * Count the leaf nodes below every move of a position.
+	 * @param logic CheckersLogic, unchanged when this returns
+	 * @param depth int, at least 1
+	 * @param lines ArrayList<String> that receives one "move: nodes" line per move
+	 * @return long total amount of leaf nodes
+	 */
+	public static long divide (CheckersLogic logic, int depth, ArrayList<String> lines) {
+		long[] moves = new long[MoveGenerator.MAX_MOVES];
+		int count = logic.generateMoves(logic.getPlayerTurn(), moves, 0);
+		long total = 0;
+		
+		for (int i = 0; i < count; i++) {
+			logic.makeMove(moves[i]);
+			long nodes = perft(logic, depth - 1);
+			logic.unmakeMove(moves[i]);
+			
+			lines.add(Move.toString(moves[i]) + ": " + nodes);
+			total += nodes;
+		}
+		
+		return total;
+	}
+	
+	/**
+	 * Count the leaf nodes of the game tree below a position, with the root moves split across
+	 * a fork-join pool. Every task works on its own copy of the position.
+	 * @param logic GameLogic, unchanged when this returns
+	 * @param depth int
+	 * @param threads int parallelism of the pool
+	 * @return long
+	 */
+	public static long perftParallel (GameLogic logic, int depth, int threads) {
+		if (depth <= 1) return perft(logic, depth);
+		
+		long[] moves = new long[logic.getMaxMoves()];
+		int count = logic.generateMoves(logic.getPlayerTurn(), moves, 0);
+		
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			ArrayList<PerftTask> tasks = new ArrayList<PerftTask>();
+			for (int i = 0; i < count; i++) {
+				tasks.add(new PerftTask(logic, moves[i], depth - 1));
+			}
+			
+			long nodes = 0;
+			for (PerftTask task : tasks) pool.execute(task);
+			for (PerftTask task : tasks) nodes += task.join();
+			
+			return nodes;
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	/**
+	 * Counts the leaf nodes below one root move.
+	 */
+	private static class PerftTask extends RecursiveTask<Long> {
+		private static final long serialVersionUID = 1L;
+		
+		private final GameLogic logic;
+		private final int depth;
+		
+		private PerftTask (GameLogic root, long move, int depth) {
+			this.logic = root.copy();
+			this.logic.makeMove(move);
+			this.depth = depth;
+		}
+		
+		@Override
+		protected Long compute () {
+			return perft(logic, depth);
+		}
+	}
+}
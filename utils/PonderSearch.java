@@ -0,0 +1,146 @@
+package utils;
+
+/**
+ * A search on the opponent's time (pondering). While the human player thinks, the AI guesses the
+ * reply and already searches the position after it on a thread of its own, with no time limit.
+ *
+ * When the human plays the guessed move, the search is not started over: it keeps running with the
+ * time budget of a normal search counted from that moment, and it usually finishes deeper than a
+ * search started then would. When the human plays another move, the search is stopped; the results
+ * it stored in the transposition table are still found by the next search wherever the positions
+ * meet.
+ */
+
+public class PonderSearch {
+	// Depth of the search that guesses the reply when the table does not know it
+	public static final int PREDICTION_DEPTH = 4;
+	
+	private final LazySmpSearch search;
+	private final long key;
+	private final Thread thread;
+	private volatile long move;
+	private volatile boolean isStopped;
+	
+	/**
+	 * Start to ponder. The search runs until it reaches the depth, or until finish or cancel is called.
+	 * @param search LazySmpSearch of the position after the guessed reply, must own its game and table
+	 *        until the pondering is finished or cancelled
+	 * @param key long key of that position
+	 * @param maxDepth int deepest depth to search
+	 * @param timeLimit long nanoseconds the search may ponder at most
+	 */
+	public PonderSearch (LazySmpSearch search, long key, int maxDepth, long timeLimit) {
+		this.search = search;
+		this.key = key;
+		
+		thread = new Thread(() -> move = search.iterate(maxDepth, timeLimit), "checkers-ponder");
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	/**
+	 * Guess the move the player to move will play: the best move the table holds for the position,
+	 * or else the best move of a shallow search.
+	 * @param game GameLogic with the player to move, unchanged when this returns
+	 * @param table TranspositionTable of the last search, must not be used by another search at the same time
+	 * @return long packed move, 0 if there is no move
+	 */
+	public static long predictReply (GameLogic game, TranspositionTable table) {
+		long[] moves = new long[game.getMaxMoves()];
+		int moveCount = game.generateMoves(game.getPlayerTurn(), moves, 0);
+		if (moveCount <= 1) return moveCount == 0 ? 0 : moves[0];
+		
+		long[] entry = new long[2];
+		if (table.probe(game.getKey(), entry)) {
+			for (int i = 0; i < moveCount; i++) {
+				if (moves[i] == entry[0]) return entry[0];
+			}
+		}
+		
+		// The search uses the table like a helper of a parallel search, without starting a new search of
+		// the table, so the results of the AI's last search are not replaced first
+		Search search = new Search(game.copy(), table);
+		search.shareTable(1);
+		return search.iterate(PREDICTION_DEPTH, Long.MAX_VALUE / 2);
+	}
+	
+	/**
+	 * Get the key of the position being searched.
+	 * @return long
+	 */
+	public long getKey () {
+		return key;
+	}
+	
+	/**
+	 * Let the search continue as the search of the AI's move, now that the guessed reply was played.
+	 * @param timeBudget long nanoseconds the search may take from now, see Search.iterate
+	 * @return long best packed move, 0 if the search was stopped or had not completed a depth
+	 */
+	public long finish (long timeBudget) {
+		// A stopped search may have ended at any depth
+		if (isStopped) {
+			cancel();
+			return 0;
+		}
+		
+		long deadline = System.nanoTime() + timeBudget;
+		search.setTimeBudget(timeBudget);
+		
+		// A search that had not started yet when its budget was set starts without a limit, so it is
+		// also stopped at the deadline
+		try {
+			while (thread.isAlive()) {
+				if (System.nanoTime() - deadline > 0) search.stop();
+				thread.join(10);
+			}
+		} catch (InterruptedException exception) {
+			cancel();
+			Thread.currentThread().interrupt();
+		}
+		
+		return search.getDepth() > 0 ? move : 0;
+	}
+	
+	/**
+	 * Stop the search without waiting for it, e.g. from the JavaFX thread. Its thread ends by itself
+	 * soon after, and the search cannot be finished any more.
+	 */
+	public void stop () {
+		isStopped = true;
+		search.cancel();
+	}
+	
+	/**
+	 * Stop the search because another reply was played, and wait until it is done.
+	 */
+	public void cancel () {
+		// A search that had not started yet when it was stopped would start over, so it is stopped until it is done
+		boolean isInterrupted = false;
+		while (thread.isAlive()) {
+			search.stop();
+			try {
+				thread.join(10);
+			} catch (InterruptedException exception) {
+				isInterrupted = true;
+			}
+		}
+		if (isInterrupted) Thread.currentThread().interrupt();
+	}
+	
+	/**
+	 * Get the score of the search for the player to move, see LazySmpSearch.getScore.
+	 * @return int
+	 */
+	public int getScore () {
+		return search.getScore();
+	}
+	
+	/**
+	 * Get the completed depth of the search.
+	 * @return int
+	 */
+	public int getDepth () {
+		return search.getDepth();
+	}
+}
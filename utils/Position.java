@@ -0,0 +1,179 @@
+package utils;
+
+/**
+ * Immutable snapshot of a checkers position: the three bitboard masks, the player to move and the
+ * Zobrist key. Playing a move returns a new snapshot, so positions can be shared between threads,
+ * kept in caches or used as map keys without copying or locking.
+ *
+ * Two positions are equal if they have the same pieces and the same player to move.
+ */
+
+public final class Position {
+	public static final Position START = new Position(Bitboard.WHITE_START, Bitboard.BLACK_START, 0, 1);
+	
+	private final int white;
+	private final int black;
+	private final int kings;
+	private final int playerTurn;
+	private final long key;
+	
+	/**
+	 * Initialize with the given masks.
+	 * @param white int mask of all player 1 pieces
+	 * @param black int mask of all player 2 pieces
+	 * @param kings int mask of all kings (of both players)
+	 * @param playerTurn int player whose turn it is (1 or 2)
+	 */
+	public Position (int white, int black, int kings, int playerTurn) {
+		this(white, black, kings, playerTurn, Zobrist.compute(new Bitboard(white, black, kings), playerTurn));
+	}
+	
+	/**
+	 * Initialize with the given masks and their already known key.
+	 * @param key long Zobrist key of the position
+	 */
+	Position (int white, int black, int kings, int playerTurn, long key) {
+		this.white = white;
+		this.black = black;
+		this.kings = kings;
+		this.playerTurn = playerTurn;
+		this.key = key;
+	}
+	
+	/**
+	 * Create a position from a position string, see Fen.
+	 * @param fen String
+	 * @return Position
+	 * @throws IllegalArgumentException if the string is not a valid position
+	 */
+	public static Position fromFen (String fen) {
+		Bitboard board = new Bitboard(0, 0, 0);
+		int playerTurn = Fen.parse(fen, board);
+		return new Position(board.white, board.black, board.kings, playerTurn);
+	}
+	
+	/**
+	 * Play a move created by the MoveGenerator for this position, including promotion and the
+	 * removal of jumped pieces. The move is not checked for legality.
+	 * @param move long
+	 * @return Position after the move, with the turn passed to the other player
+	 */
+	public Position play (long move) {
+		int from = Move.getFrom(move);
+		int to = Move.getTo(move);
+		int fromBit = 1 << from;
+		int toBit = 1 << to;
+		int captures = Move.getCaptures(move);
+		boolean isKing = (kings & fromBit) != 0;
+		boolean becomesKing = isKing || Move.isPromotion(move);
+		boolean isWhite = (white & fromBit) != 0;
+		
+		int man = isWhite ? Zobrist.WHITE_MAN : Zobrist.BLACK_MAN;
+		int king = isWhite ? Zobrist.WHITE_KING : Zobrist.BLACK_KING;
+		int capturedMan = isWhite ? Zobrist.BLACK_MAN : Zobrist.WHITE_MAN;
+		int capturedKing = isWhite ? Zobrist.BLACK_KING : Zobrist.WHITE_KING;
+		
+		long newKey = key ^ Zobrist.sideKey()
+				^ Zobrist.pieceKey(isKing ? king : man, from)
+				^ Zobrist.pieceKey(becomesKing ? king : man, to)
+				^ Zobrist.xorAll(capturedMan, captures & ~kings)
+				^ Zobrist.xorAll(capturedKing, captures & kings);
+		
+		int newKings = (kings & ~fromBit & ~captures) | (becomesKing ? toBit : 0);
+		
+		if (isWhite) {
+			return new Position((white & ~fromBit) | toBit, black & ~captures, newKings, 2, newKey);
+		}
+		return new Position(white & ~captures, (black & ~fromBit) | toBit, newKings, 1, newKey);
+	}
+	
+	/**
+	 * Write all legal moves of the player to move into the buffer.
+	 * @param moves long[] buffer with at least MoveGenerator.MAX_MOVES free entries after offset
+	 * @param offset int first index to write to
+	 * @return int amount of moves written
+	 */
+	public int generateMoves (long[] moves, int offset) {
+		return MoveGenerator.generate(white, black, kings, playerTurn, moves, offset);
+	}
+	
+	/**
+	 * Get the mask of all player 1 pieces (men and kings)
+	 * @return int
+	 */
+	public int getWhite () {
+		return white;
+	}
+	
+	/**
+	 * Get the mask of all player 2 pieces (men and kings)
+	 * @return int
+	 */
+	public int getBlack () {
+		return black;
+	}
+	
+	/**
+	 * Get the mask of all kings of both players
+	 * @return int
+	 */
+	public int getKings () {
+		return kings;
+	}
+	
+	/**
+	 * Get the player whose turn it is
+	 * @return int (1 or 2)
+	 */
+	public int getPlayerTurn () {
+		return playerTurn;
+	}
+	
+	/**
+	 * Get the 64-bit Zobrist key of the position, the same key as CheckersLogic.getKey.
+	 * @return long
+	 */
+	public long getKey () {
+		return key;
+	}
+	
+	/**
+	 * Get a mutable copy of the pieces.
+	 * @return Bitboard
+	 */
+	public Bitboard toBitboard () {
+		return new Bitboard(white, black, kings);
+	}
+	
+	/**
+	 * Write the position as a position string, see Fen.
+	 * @return String
+	 */
+	public String toFen () {
+		return Fen.write(toBitboard(), playerTurn);
+	}
+	
+	@Override
+	public boolean equals (Object other) {
+		if (this == other) return true;
+		if (!(other instanceof Position)) return false;
+		
+		// The key decides almost always, the masks rule out the rare key collision
+		Position position = (Position) other;
+		return key == position.key && white == position.white && black == position.black
+				&& kings == position.kings && playerTurn == position.playerTurn;
+	}
+	
+	@Override
+	public int hashCode () {
+		return (int) (key ^ (key >>> 32));
+	}
+	
+	/**
+	 * Print the position as a position string.
+	 */
+	@Override
+	public String toString () {
+		return toFen();
+	}
+}
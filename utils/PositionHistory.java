@@ -0,0 +1,175 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * The keys of the positions played in a game, used for the repetition and no progress draw rules.
+ *
+ * Keys are kept in a ring buffer indexed by ply, together with the amount of moves since the last
+ * irreversible move (a capture or a man move). Only positions in that stretch can be repeated.
+ * A table counting the keys of the stretch per slot rules out most repetitions in O(1), only a
+ * position whose slot has been seen before in the stretch needs a look through the ring buffer.
+ * A key leaves the table when it falls out of the stretch: all keys of the stretch at an
+ * irreversible move, and the oldest one once the stretch is longer than the look back.
+ */
+
+public class PositionHistory {
+	// Size of the ring buffer of position keys, at most half of it can be taken back
+	public static final int SIZE = 256;
+	
+	// Moves back repetitions are looked for. The keys that far back are still in the ring buffer after
+	// moves were taken back, so they can be counted again
+	public static final int LOOK_BACK = SIZE / 2 - 1;
+	
+	// Size of the table counting how often each key slot occurs, a power of two
+	private static final int SLOTS = 1024;
+	
+	private final long[] keys;
+	private final int[] reversibleMoves;
+	private final int[] slots;
+	private int ply;
+	private int noProgressLimit;
+	
+	/**
+	 * Initialize an empty history.
+	 * @param noProgressLimit int moves per player without a capture or a man move that draw the game
+	 */
+	public PositionHistory (int noProgressLimit) {
+		keys = new long[SIZE];
+		reversibleMoves = new int[SIZE];
+		slots = new int[SLOTS];
+		setNoProgressLimit(noProgressLimit);
+	}
+	
+	/**
+	 * Copy constructor.
+	 * @param other PositionHistory
+	 */
+	public PositionHistory (PositionHistory other) {
+		keys = other.keys.clone();
+		reversibleMoves = other.reversibleMoves.clone();
+		slots = other.slots.clone();
+		ply = other.ply;
+		noProgressLimit = other.noProgressLimit;
+	}
+	
+	/**
+	 * Start the history over with a single position.
+	 * @param key long key of the current position
+	 */
+	public void clear (long key) {
+		Arrays.fill(slots, 0);
+		ply = 0;
+		keys[0] = key;
+		reversibleMoves[0] = 0;
+		slots[(int) key & (SLOTS - 1)]++;
+	}
+	
+	/**
+	 * Add the position after a move.
+	 * @param key long key of the new position
+	 * @param isReversible boolean false for a capture or a man move
+	 */
+	public void push (long key, boolean isReversible) {
+		int reversible = isReversible ? reversibleMoves[ply & (SIZE - 1)] + 1 : 0;
+		
+		// The positions before an irreversible move cannot occur again, and on a longer stretch the
+		// oldest position falls out of the look back
+		if (!isReversible) {
+			count(ply, -1);
+		} else if (reversible > LOOK_BACK) {
+			slots[(int) keys[(ply - LOOK_BACK) & (SIZE - 1)] & (SLOTS - 1)]--;
+		}
+		
+		ply++;
+		keys[ply & (SIZE - 1)] = key;
+		reversibleMoves[ply & (SIZE - 1)] = reversible;
+		slots[(int) key & (SLOTS - 1)]++;
+	}
+	
+	/**
+	 * Remove the last position, when its move is unmade. At most SIZE / 2 moves can be taken back.
+	 */
+	public void pop () {
+		int reversible = reversibleMoves[ply & (SIZE - 1)];
+		slots[(int) keys[ply & (SIZE - 1)] & (SLOTS - 1)]--;
+		ply--;
+		
+		// The positions push took out of the count are counted again
+		if (reversible == 0) {
+			count(ply, 1);
+		} else if (reversible > LOOK_BACK) {
+			slots[(int) keys[(ply - LOOK_BACK) & (SIZE - 1)] & (SLOTS - 1)]++;
+		}
+	}
+	
+	/**
+	 * Get how often the current position has occurred (with the same player to move), counting the current one.
+	 * @return int 1 or more
+	 */
+	public int getRepetitionCount () {
+		long key = keys[ply & (SIZE - 1)];
+		if (slots[(int) key & (SLOTS - 1)] < 2) return 1;
+		
+		int count = 1;
+		int lookBack = Math.min(reversibleMoves[ply & (SIZE - 1)], LOOK_BACK);
+		for (int back = 2; back <= lookBack; back += 2) {
+			if (keys[(ply - back) & (SIZE - 1)] == key) count++;
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Get how many positions of the current stretch share the slot of a key in the counting table,
+	 * at least the amount of times the key occurs in the stretch (within the look back).
+	 * @param key long
+	 * @return int
+	 */
+	public int getSlotCount (long key) {
+		return slots[(int) key & (SLOTS - 1)];
+	}
+	
+	/**
+	 * Get the amount of moves since the last capture or man move.
+	 * @return int
+	 */
+	public int getReversibleMoves () {
+		return reversibleMoves[ply & (SIZE - 1)];
+	}
+	
+	/**
+	 * Check if both players have made getNoProgressLimit moves without a capture or a man move.
+	 * @return boolean
+	 */
+	public boolean isDrawByNoProgress () {
+		return reversibleMoves[ply & (SIZE - 1)] >= 2 * noProgressLimit;
+	}
+	
+	/**
+	 * Get the amount of moves per player without a capture or a man move that draws the game.
+	 * @return int
+	 */
+	public int getNoProgressLimit () {
+		return noProgressLimit;
+	}
+	
+	/**
+	 * Set the amount of moves per player without a capture or a man move that draws the game.
+	 * @param moves int, at least 1
+	 */
+	public void setNoProgressLimit (int moves) {
+		if (moves < 1) throw new IllegalArgumentException("No progress limit must be at least 1: " + moves);
+		noProgressLimit = moves;
+	}
+	
+	/**
+	 * Add a change to the count of every key of the stretch that ends at a ply, within the look back.
+	 */
+	private void count (int end, int change) {
+		int lookBack = Math.min(reversibleMoves[end & (SIZE - 1)], LOOK_BACK);
+		for (int back = 0; back <= lookBack; back++) {
+			slots[(int) keys[(end - back) & (SIZE - 1)] & (SLOTS - 1)] += change;
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package utils;
+
+import java.util.Random;
+
+/**
+ * Fits the ProbCut model of Search: the score of a deep search is predicted from a shallow search of
+ * the same position as deep = slope * shallow + offset, and the standard deviation of the error
+ * says how far off that prediction may be. The fit is a least squares line through the scores of
+ * both searches over positions from random games.
+ *
+ * Usage: java utils.ProbCutCalibration [positions] [seed]
+ */
+
+public class ProbCutCalibration {
+	/**
+	 * Print the fit for the depths Search uses.
+	 * @param args [positions] [seed]
+	 */
+	public static void main (String[] args) {
+		int positions = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+		int deep = Search.PROBCUT_DEPTH + 2;
+		int shallow = deep - Search.PROBCUT_REDUCTION;
+		
+		double[] fit = calibrate(positions, shallow, deep, new Random(seed));
+		
+		System.out.println("depth " + shallow + " -> " + deep + " over " + positions + " positions");
+		System.out.println("  slope  = " + fit[0]);
+		System.out.println("  offset = " + fit[1]);
+		System.out.println("  sigma  = " + fit[2]);
+	}
+	
+	/**
+	 * Search positions from random games at two depths and fit a line through the scores.
+	 * Positions with a found win or loss are left out, their scores are not on the same scale.
+	 * @param positions int amount of positions
+	 * @param shallow int depth of the shallow search
+	 * @param deep int depth of the deep search
+	 * @param random Random source of the games
+	 * @return double[] { slope, offset, sigma }
+	 */
+	public static double[] calibrate (int positions, int shallow, int deep, Random random) {
+		long[] moves = new long[MoveGenerator.MAX_MOVES];
+		double[] x = new double[positions];
+		double[] y = new double[positions];
+		int count = 0;
+		
+		while (count < positions) {
+			// A position 6 - 40 plies into a random game, with the player to move having a choice
+			CheckersLogic logic = new CheckersLogic();
+			int plies = 6 + random.nextInt(35);
+			int moveCount = 0;
+			
+			for (int ply = 0; ply <= plies; ply++) {
+				moveCount = logic.generateMoves(logic.getPlayerTurn(), moves, 0);
+				if (moveCount == 0 || ply == plies) break;
+				logic.playMove(moves[random.nextInt(moveCount)]);
+			}
+			if (moveCount < 2) continue;
+			
+			int shallowScore = score(logic, shallow);
+			int deepScore = score(logic, deep);
+			if (Math.abs(shallowScore) >= Search.WIN - Search.MAX_PLY || Math.abs(deepScore) >= Search.WIN - Search.MAX_PLY) continue;
+			
+			x[count] = shallowScore;
+			y[count] = deepScore;
+			count++;
+		}
+		
+		double meanX = 0, meanY = 0;
+		for (int i = 0; i < count; i++) {
+			meanX += x[i];
+			meanY += y[i];
+		}
+		meanX /= count;
+		meanY /= count;
+		
+		double covariance = 0, variance = 0;
+		for (int i = 0; i < count; i++) {
+			covariance += (x[i] - meanX) * (y[i] - meanY);
+			variance += (x[i] - meanX) * (x[i] - meanX);
+		}
+		double slope = variance > 0 ? covariance / variance : 1;
+		double offset = meanY - slope * meanX;
+		
+		double error = 0;
+		for (int i = 0; i < count; i++) {
+			double residual = y[i] - (slope * x[i] + offset);
+			error += residual * residual;
+		}
+		
+		return new double[] { slope, offset, Math.sqrt(error / Math.max(1, count - 2)) };
+	}
+	
+	/**
+	 * Score a position with a fresh fixed depth search without ProbCut.
+	 */
+	private static int score (CheckersLogic logic, int depth) {
+		Search search = new Search(new CheckersLogic(logic.getPosition()), new TranspositionTable(1));
+		search.iterate(depth, Long.MAX_VALUE / 2);
+		return search.getScore();
+	}
+}
@@ -0,0 +1,296 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A parallel search that gives the same result on every run, for benchmarking. Unlike LazySmpSearch
+ * the threads split up the work: at each depth of iterative deepening the first root move is searched
+ * alone to set the bound, then the other root moves (and, up to getSplitPlies, the moves below them
+ * the same way) are searched as tasks of a fork-join pool. The tasks share the bound of their parent
+ * through an AtomicLong holding the best score and the index of its move.
+ *
+ * Which task finishes first changes how much is cut off, but not the result: every task runs a
+ * deterministic Search (see Search.setDeterministic), a move only replaces the best one with an exact
+ * score, and a tie goes to the move that comes first. So for a given completed depth the best move and
+ * score only depend on the position. A time budget can end the search at a different depth each run,
+ * so benchmarks should give a depth and no time limit.
+ */
+
+public class RootSplitSearch {
+	// Plies below the root that are split into tasks by default
+	public static final int DEFAULT_SPLIT_PLIES = 1;
+	
+	private final GameLogic game;
+	private final TranspositionTable table;
+	private final int threads;
+	private int splitPlies = DEFAULT_SPLIT_PLIES;
+	
+	private long deadline;
+	private volatile boolean isStopped;
+	private final AtomicLong nodes = new AtomicLong();
+	
+	// Result of the last completed depth
+	private long bestMove;
+	private int bestScore;
+	private int completedDepth;
+	
+	/**
+	 * Initialize a search.
+	 * @param game GameLogic of the position, every task searches its own copy
+	 * @param table TranspositionTable shared by the tasks, only used to order moves
+	 * @param threads int parallelism of the fork-join pool, at least 1
+	 */
+	public RootSplitSearch (GameLogic game, TranspositionTable table, int threads) {
+		this.game = game;
+		this.table = table;
+		this.threads = Math.max(1, threads);
+	}
+	
+	/**
+	 * Set how many plies below the root are split into tasks, 0 only splits the root moves.
+	 * More plies give more tasks for more threads, at the cost of more work that is cut off later.
+	 * @param splitPlies int
+	 */
+	public void setSplitPlies (int splitPlies) {
+		this.splitPlies = Math.max(0, splitPlies);
+	}
+	
+	/**
+	 * Get how many plies below the root are split into tasks.
+	 * @return int
+	 */
+	public int getSplitPlies () {
+		return splitPlies;
+	}
+	
+	/**
+	 * Search the position with iterative deepening, see Search.iterate.
+	 * @param maxDepth int deepest depth to search
+	 * @param timeBudget long nanoseconds: no new depth is started after half of it, and a depth
+	 *        still running when it is used up is abandoned
+	 * @return long best packed move, 0 if there is no move
+	 */
+	public long iterate (int maxDepth, long timeBudget) {
+		long start = System.nanoTime();
+		deadline = start + timeBudget;
+		isStopped = false;
+		nodes.set(0);
+		bestMove = 0;
+		bestScore = 0;
+		completedDepth = 0;
+		table.newSearch();
+		
+		long[] moves = new long[game.getMaxMoves()];
+		int moveCount = game.generateMoves(game.getPlayerTurn(), moves, 0);
+		if (moveCount == 0) return 0;
+		
+		// With a single legal move there is nothing to think about
+		bestMove = moves[0];
+		if (moveCount == 1) return bestMove;
+		
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			for (int depth = 1; depth <= Math.min(maxDepth, Search.MAX_DEPTH); depth++) {
+				long best = pool.invoke(new RootTask(moves, moveCount, depth));
+				if (isStopped) break;
+				
+				int index = getIndex(best);
+				bestMove = moves[index];
+				bestScore = getScore(best);
+				completedDepth = depth;
+				
+				// The best move is searched first at the next depth, the others keep their order
+				System.arraycopy(moves, 0, moves, 1, index);
+				moves[0] = bestMove;
+				
+				if (Math.abs(bestScore) >= Search.WIN - Search.MAX_PLY) break;
+				if (System.nanoTime() - start > timeBudget / 2) break;
+			}
+		} finally {
+			pool.shutdown();
+		}
+		
+		return bestMove;
+	}
+	
+	/**
+	 * Get the score of the best move of the last completed depth, for the player to move.
+	 * @return int
+	 */
+	public int getScore () {
+		return bestScore;
+	}
+	
+	/**
+	 * Get the last completed depth.
+	 * @return int
+	 */
+	public int getDepth () {
+		return completedDepth;
+	}
+	
+	/**
+	 * Get the amount of positions visited by the last search.
+	 * @return long
+	 */
+	public long getNodes () {
+		return nodes.get();
+	}
+	
+	/**
+	 * Pack a score and the index of its move, so that a higher score, and on equal scores the
+	 * lower index, gives the higher long.
+	 */
+	private static long pack (int score, int index) {
+		return ((long) score << 32) | (0xFFFFFFFFL - index);
+	}
+	
+	private static int getScore (long packed) {
+		return (int) (packed >> 32);
+	}
+	
+	private static int getIndex (long packed) {
+		return (int) (0xFFFFFFFFL - (packed & 0xFFFFFFFFL));
+	}
+	
+	/**
+	 * Searches all root moves at one depth.
+	 */
+	private class RootTask extends RecursiveTask<Long> {
+		private static final long serialVersionUID = 1L;
+		
+		private final long[] moves;
+		private final int moveCount;
+		private final int depth;
+		
+		private RootTask (long[] moves, int moveCount, int depth) {
+			this.moves = moves;
+			this.moveCount = moveCount;
+			this.depth = depth;
+		}
+		
+		@Override
+		protected Long compute () {
+			// The first move is searched alone with the full window, its score is the bound for the rest
+			int first = -new NodeTask(game, moves[0], depth - 1, 1, -Search.INFINITY, Search.INFINITY).compute();
+			AtomicLong bound = new AtomicLong(pack(first, 0));
+			
+			ArrayList<SiblingTask> tasks = new ArrayList<SiblingTask>();
+			for (int i = 1; i < moveCount; i++) {
+				tasks.add(new SiblingTask(game, moves[i], i, depth, 0, Search.INFINITY, bound));
+			}
+			invokeAll(tasks);
+			
+			return bound.get();
+		}
+	}
+	
+	/**
+	 * Searches one move of a split position with the bound its siblings have found so far.
+	 */
+	private class SiblingTask extends RecursiveTask<Integer> {
+		private static final long serialVersionUID = 1L;
+		
+		private final GameLogic parent;
+		private final long move;
+		private final int index;
+		private final int depth;
+		private final int ply;
+		private final int beta;
+		private final AtomicLong bound;
+		
+		private SiblingTask (GameLogic parent, long move, int index, int depth, int ply, int beta, AtomicLong bound) {
+			this.parent = parent;
+			this.move = move;
+			this.index = index;
+			this.depth = depth;
+			this.ply = ply;
+			this.beta = beta;
+			this.bound = bound;
+		}
+		
+		@Override
+		protected Integer compute () {
+			// A move before the best one so far wins a tie, so it has to find out if it is at least as good
+			long best = bound.get();
+			int alpha = index < getIndex(best) ? getScore(best) - 1 : getScore(best);
+			if (alpha >= beta || isStopped) return -Search.INFINITY;
+			
+			int score = -new NodeTask(parent, move, depth - 1, ply + 1, -beta, -alpha).compute();
+			
+			// Only a score above alpha is exact, a lower one is just a bound
+			if (score > alpha && !isStopped) {
+				long packed = pack(score, index);
+				long current = bound.get();
+				while (packed > current && !bound.compareAndSet(current, packed)) current = bound.get();
+			}
+			
+			return score;
+		}
+	}
+	
+	/**
+	 * Searches the position after a move, splitting its moves into tasks while it is close to the root.
+	 */
+	private class NodeTask extends RecursiveTask<Integer> {
+		private static final long serialVersionUID = 1L;
+		
+		private final GameLogic node;
+		private final int depth;
+		private final int ply;
+		private final int alpha;
+		private final int beta;
+		
+		private NodeTask (GameLogic parent, long move, int depth, int ply, int alpha, int beta) {
+			this.node = parent.copy();
+			this.node.makeMove(move);
+			this.depth = depth;
+			this.ply = ply;
+			this.alpha = alpha;
+			this.beta = beta;
+		}
+		
+		@Override
+		protected Integer compute () {
+			if (ply > splitPlies || depth < 2 || isEnd()) {
+				Search search = new Search(node, table);
+				search.setDeterministic(true);
+				
+				int score = search.searchNode(depth, ply, alpha, beta, deadline);
+				nodes.addAndGet(search.getNodes());
+				if (search.wasStopped()) isStopped = true;
+				
+				return score;
+			}
+			
+			long[] moves = new long[node.getMaxMoves()];
+			int moveCount = node.generateMoves(node.getPlayerTurn(), moves, 0);
+			nodes.incrementAndGet();
+			
+			// The first move is searched alone, a cutoff there saves the other moves
+			int first = -new NodeTask(node, moves[0], depth - 1, ply + 1, -beta, -alpha).compute();
+			if (first >= beta || moveCount == 1) return first;
+			
+			AtomicLong bound = new AtomicLong(pack(Math.max(first, alpha), 0));
+			ArrayList<SiblingTask> tasks = new ArrayList<SiblingTask>();
+			for (int i = 1; i < moveCount; i++) {
+				tasks.add(new SiblingTask(node, moves[i], i, depth, ply, beta, bound));
+			}
+			
+			int best = first;
+			for (SiblingTask task : invokeAll(tasks)) best = Math.max(best, task.join());
+			return best;
+		}
+		
+		/**
+		 * Check if the game ends in the position, then the Search scores it.
+		 */
+		private boolean isEnd () {
+			return node.getRepetitionCount() >= 2 || node.isDrawByNoProgress() || node.hasWonGame() > 0
+					|| !node.hasAnyMove(node.getPlayerTurn());
+		}
+	}
+}
@@ -0,0 +1,649 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * The game tree search behind CheckersAI: an alpha-beta search (in its negamax form) driven by
+ * iterative deepening. Depth 1, 2, 3... are searched in turn until the depth limit or the time
+ * budget is reached, and the best move of the last completed depth is played. A depth that runs
+ * past the deadline is abandoned, so the time the AI takes is predictable.
+ *
+ * Results are kept in a transposition table, so a position reached again through another move
+ * order, or searched again one depth deeper, costs a table lookup instead of a search. The table
+ * can be shared by searches that run one after the other, e.g. all moves of a game.
+ *
+ * Alpha-beta cuts off the most when the best move is searched first, so the moves of a position are
+ * ordered: the best move from the table, then captures (most pieces first), then the two quiet moves
+ * that last caused a cutoff at the same ply (killer moves), then the rest by how often they caused
+ * cutoffs anywhere in the tree (history heuristic).
+ *
+ * Once the moves are ordered, the first move is usually the best. The other moves are only tested
+ * with a null window (is the move better than the best one so far?), which cuts off far more
+ * than a full window, and are searched again with the full window when the test says yes
+ * (principal variation search). Likewise each depth of iterative deepening first searches the
+ * root with a narrow window around the score of the previous depth (aspiration window).
+ *
+ * Two kinds of forward pruning can be switched on and off separately. Late move reductions search
+ * quiet moves that the ordering puts late one depth less (two for very late ones), and search a move
+ * again at full depth if it turns out to beat alpha. ProbCut predicts the score of a deep search from
+ * a shallow one (see ProbCutCalibration) and cuts off a node when the prediction is far enough
+ * outside the window.
+ *
+ * Captures are forced, so a position where one is pending is often a whole piece away from its
+ * evaluation. At the end of the depth the search therefore plays on through pending captures
+ * (quiescence search) and only evaluates positions where no capture is forced.
+ *
+ * A search owns its game logic and makes and unmakes every move on it, so one search object must
+ * only be used by one thread. stop() may be called from any thread.
+ */
+
+public class Search {
+	// Scores are in hundredths of a man
+	public static final int MAN_VALUE = 100;
+	public static final int KING_VALUE = 150;
+	public static final int DRAW = 0;
+	
+	// Score of a won game, higher than any evaluation. Wins found closer to the root score higher
+	public static final int WIN = 1000000;
+	public static final int INFINITY = WIN + 1;
+	
+	// Deepest depth iterative deepening goes to, and the deepest ply the search may reach
+	public static final int MAX_DEPTH = 64;
+	public static final int MAX_PLY = CheckersLogic.MAX_PLY;
+	
+	// Amount of nodes between two looks at the clock
+	private static final int CLOCK_INTERVAL = 1024;
+	
+	// Half the width of the first root window of a depth, and the first depth that uses one
+	private static final int ASPIRATION_WINDOW = 75;
+	private static final int ASPIRATION_DEPTH = 4;
+	
+	// Late move reductions: moves searched before reducing, the first depth that reduces, and the
+	// first move and depth that are reduced twice
+	private static final int LMR_MOVES = 3;
+	private static final int LMR_DEPTH = 3;
+	private static final int LMR_DOUBLE_MOVES = 8;
+	private static final int LMR_DOUBLE_DEPTH = 6;
+	
+	// ProbCut: the first depth it is tried at, how much shallower the predicting search is, and the
+	// fit deep = SLOPE * shallow + OFFSET with its standard deviation, from ProbCutCalibration
+	public static final int PROBCUT_DEPTH = 6;
+	public static final int PROBCUT_REDUCTION = 4;
+	private static final double PROBCUT_SLOPE = 1.06;
+	private static final double PROBCUT_OFFSET = 0.5;
+	private static final double PROBCUT_SIGMA = 38.0;
+	
+	// Standard deviations the prediction must be outside the window, higher cuts less and errs less
+	private static final double PROBCUT_THRESHOLD = 1.5;
+	
+	// Move ordering scores, history scores stay below the killer moves
+	private static final int HASH_MOVE_SCORE = 1 << 30;
+	private static final int CAPTURE_SCORE = 1 << 29;
+	private static final int KILLER_SCORE = 1 << 28;
+	private static final int HISTORY_LIMIT = 1 << 26;
+	
+	// Size of the history table per player, see GameLogic.getMoveIndex
+	private static final int MOVE_INDICES = 4096;
+	
+	private final GameLogic game;
+	private final TranspositionTable table;
+	private final long[] moveBuffer;
+	
+	// Ordering score of every move in the move buffer
+	private final int[] moveScores;
+	
+	// Two killer moves per ply, and the history score of each move index per player
+	private final long[] killers;
+	private final int[] history;
+	
+	// The clock of the search, can be reset while it runs, see setTimeBudget
+	private volatile long startTime;
+	private volatile long timeBudget;
+	private volatile long deadline;
+	private volatile boolean isStopped;
+	private volatile boolean isCancelled;
+	private long nodes;
+	
+	// Result of the last completed depth
+	private long bestMove;
+	private int bestScore;
+	private int completedDepth;
+	
+	// Best move of the depth being searched
+	private long iterationMove;
+	
+	// Result of an earlier search to continue from, see seed
+	private long seedMove;
+	private int seedDepth;
+	private int seedScore;
+	
+	// Forward pruning switches, and if table results may end the search of a position
+	private boolean useLateMoveReductions = true;
+	private boolean useProbCut = false;
+	private boolean useTableCutoffs = true;
+	
+	// Set for the searches of a parallel search: the first depth to search, and if this search
+	// starts a new search of the table
+	private int startDepth = 1;
+	private boolean ownsTable = true;
+	
+	// Receives the best move and the info word of a table entry, see TranspositionTable.probe
+	private final long[] tableEntry = new long[2];
+	
+	/**
+	 * Initialize a search with a transposition table of its own.
+	 * @param game GameLogic owned by the search, see GameLogic.copy
+	 */
+	public Search (GameLogic game) {
+		this(game, new TranspositionTable(TranspositionTable.DEFAULT_SIZE));
+	}
+	
+	/**
+	 * Initialize a search.
+	 * @param game GameLogic owned by the search, see GameLogic.copy
+	 * @param table TranspositionTable to keep results in, must not be used by another search at the same time
+	 */
+	public Search (GameLogic game, TranspositionTable table) {
+		this.game = game;
+		this.table = table;
+		this.moveBuffer = new long[MAX_PLY * game.getMaxMoves()];
+		this.moveScores = new int[moveBuffer.length];
+		this.killers = new long[2 * MAX_PLY];
+		this.history = new int[2 * MOVE_INDICES];
+	}
+	
+	/**
+	 * Switch late move reductions on or off, they are on by default and always off in a deterministic search.
+	 * @param useLateMoveReductions boolean
+	 */
+	public void setLateMoveReductions (boolean useLateMoveReductions) {
+		this.useLateMoveReductions = useLateMoveReductions && useTableCutoffs;
+	}
+	
+	/**
+	 * Switch ProbCut on or off, it is off by default and always off in a deterministic search.
+	 * @param useProbCut boolean
+	 */
+	public void setProbCut (boolean useProbCut) {
+		this.useProbCut = useProbCut && useTableCutoffs;
+	}
+	
+	/**
+	 * Make the score of a search only depend on the position, the depth and the window. The table then
+	 * only orders the moves, and late move reductions and ProbCut are off: results stored under another
+	 * window or depth (e.g. by another thread) can no longer change a score.
+	 * @param isDeterministic boolean
+	 */
+	public void setDeterministic (boolean isDeterministic) {
+		useTableCutoffs = !isDeterministic;
+		if (isDeterministic) {
+			useLateMoveReductions = false;
+			useProbCut = false;
+		}
+	}
+	
+	/**
+	 * Search the position the game is in as a node of a larger search, see RootSplitSearch.
+	 * @param depth int remaining depth
+	 * @param ply int distance of the position from the root of the larger search
+	 * @param alpha int
+	 * @param beta int
+	 * @param deadline long System.nanoTime at which the search stops
+	 * @return int score for the player to move, meaningless if wasStopped
+	 */
+	int searchNode (int depth, int ply, int alpha, int beta, long deadline) {
+		this.deadline = deadline;
+		isStopped = false;
+		return negamax(depth, ply, alpha, beta);
+	}
+	
+	/**
+	 * Check if the last search was stopped before it was done.
+	 * @return boolean
+	 */
+	boolean wasStopped () {
+		return isStopped;
+	}
+	
+	/**
+	 * Make this search one of the searches of a parallel search that share a table. The parallel
+	 * search starts the new search of the table, and this search starts at a given depth.
+	 * @param startDepth int first depth to search
+	 */
+	void shareTable (int startDepth) {
+		this.startDepth = startDepth;
+		this.ownsTable = false;
+	}
+	
+	/**
+	 * Continue the next call of iterate from an earlier search of the same position, e.g. one from
+	 * AnalysisCache. Its move is searched first at the root, and it stays the result until a depth at
+	 * least as deep completes. The shallower depths are still searched, they fill the table, the killer
+	 * moves and the history for the deeper ones.
+	 * @param move long best move of the earlier search
+	 * @param depth int depth of the earlier search
+	 * @param score int score of the earlier search
+	 * @return boolean false if the move is not legal in the position, the seed is ignored then
+	 */
+	public boolean seed (long move, int depth, int score) {
+		int moveCount = game.generateMoves(game.getPlayerTurn(), moveBuffer, 0);
+		for (int i = 0; i < moveCount; i++) {
+			if (moveBuffer[i] == move) {
+				seedMove = move;
+				seedDepth = Math.min(depth, MAX_DEPTH);
+				seedScore = score;
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Search the position of the game with iterative deepening.
+	 * @param maxDepth int deepest depth to search
+	 * @param timeBudget long nanoseconds: no new depth is started after half of it, and a depth
+	 *        still running when it is used up is abandoned
+	 * @return long best packed move, 0 if there is no move
+	 */
+	public long iterate (int maxDepth, long timeBudget) {
+		startTime = System.nanoTime();
+		this.timeBudget = timeBudget;
+		deadline = startTime + timeBudget;
+		isStopped = false;
+		
+		// Checked after the reset, so a cancel at any time stops the search
+		if (isCancelled) isStopped = true;
+		nodes = 0;
+		bestMove = 0;
+		bestScore = 0;
+		completedDepth = 0;
+		if (ownsTable) table.newSearch();
+		Arrays.fill(killers, 0);
+		Arrays.fill(history, 0);
+		
+		int moveCount = game.generateMoves(game.getPlayerTurn(), moveBuffer, 0);
+		if (moveCount == 0) return 0;
+		
+		// With a single legal move there is nothing to think about
+		bestMove = moveBuffer[0];
+		if (moveCount == 1) {
+			seedMove = 0;
+			return bestMove;
+		}
+		
+		if (seedMove != 0) {
+			bestMove = seedMove;
+			bestScore = seedScore;
+			completedDepth = seedDepth;
+			seedMove = 0;
+		}
+		
+		for (int depth = startDepth; depth <= Math.min(maxDepth, MAX_DEPTH); depth++) {
+			iterationMove = 0;
+			int score = aspirate(depth);
+			if (isStopped) break;
+			
+			// A found win or loss does not change with more depth, so it is the result even when it
+			// is shallower than the seed
+			boolean isDecided = Math.abs(score) >= WIN - MAX_PLY;
+			if (depth >= completedDepth || isDecided) {
+				bestMove = iterationMove;
+				bestScore = score;
+				completedDepth = depth;
+			}
+			
+			// The next depth takes longer than all of the previous ones together
+			if (isDecided) break;
+			if (System.nanoTime() - startTime > this.timeBudget / 2) break;
+		}
+		
+		return bestMove;
+	}
+	
+	/**
+	 * Give the running search a new time budget, counted from now. A search that was started without
+	 * a real limit, e.g. to ponder, can then finish in the time of a normal search.
+	 * @param timeBudget long nanoseconds, see iterate
+	 */
+	public void setTimeBudget (long timeBudget) {
+		long now = System.nanoTime();
+		this.timeBudget = timeBudget;
+		deadline = now + timeBudget;
+		startTime = now;
+	}
+	
+	/**
+	 * Stop the search as soon as possible, it then returns the best move found so far.
+	 */
+	public void stop () {
+		isStopped = true;
+	}
+	
+	/**
+	 * Stop the search for good, without waiting for it: unlike stop, a search that has not started
+	 * yet also stops at once when it starts.
+	 */
+	public void cancel () {
+		isCancelled = true;
+		isStopped = true;
+	}
+	
+	/**
+	 * Get the score of the best move of the last completed depth, for the player to move.
+	 * @return int
+	 */
+	public int getScore () {
+		return bestScore;
+	}
+	
+	/**
+	 * Get the last completed depth.
+	 * @return int
+	 */
+	public int getDepth () {
+		return completedDepth;
+	}
+	
+	/**
+	 * Get the best move of the last completed depth.
+	 * @return long packed move, 0 if there is no move
+	 */
+	public long getBestMove () {
+		return bestMove;
+	}
+	
+	/**
+	 * Get the amount of positions visited by the last search.
+	 * @return long
+	 */
+	public long getNodes () {
+		return nodes;
+	}
+	
+	/**
+	 * Search the root with a window around the score of the previous depth, as long as that score is
+	 * not a win or a loss. A score outside the window is only a bound, then the window is widened
+	 * on that side (twice as far each time) and the root searched again.
+	 * @param depth int depth to search
+	 * @return int score of the root for the player to move
+	 */
+	private int aspirate (int depth) {
+		if (depth < ASPIRATION_DEPTH || Math.abs(bestScore) >= WIN - MAX_PLY) {
+			return negamax(depth, 0, -INFINITY, INFINITY);
+		}
+		
+		int delta = ASPIRATION_WINDOW;
+		int alpha = Math.max(bestScore - delta, -INFINITY);
+		int beta = Math.min(bestScore + delta, INFINITY);
+		
+		while (true) {
+			int score = negamax(depth, 0, alpha, beta);
+			if (isStopped) return score;
+			
+			if (score <= alpha && alpha > -INFINITY) {
+				alpha = Math.max(score - delta, -INFINITY);
+			} else if (score >= beta && beta < INFINITY) {
+				beta = Math.min(score + delta, INFINITY);
+			} else {
+				return score;
+			}
+			delta *= 2;
+		}
+	}
+	
+	/**
+	 * Alpha-beta search in its negamax form.
+	 * Scores are always from the point of view of the player to move, so both players maximize
+	 * and the score of a child is negated. Subtrees that cannot change the result (score outside
+	 * alpha - beta) are cut off, which gives the same best move as minimax with far fewer nodes.
+	 * @param depth remaining depth
+	 * @param ply distance from the root
+	 * @param alpha score the player to move is already sure of
+	 * @param beta score the opponent is already sure of
+	 * @return int score of the position for the player to move, meaningless once the search is stopped
+	 */
+	private int negamax (int depth, int ply, int alpha, int beta) {
+		if ((++nodes & (CLOCK_INTERVAL - 1)) == 0 && System.nanoTime() - deadline > 0) isStopped = true;
+		if (isStopped) return DRAW;
+		
+		int playerTurn = game.getPlayerTurn();
+		
+		// A position that repeats one from earlier in the game or the search, or that reaches the no
+		// progress limit, is a draw. Playing on from a repetition cannot gain anything
+		if (ply > 0 && (game.getRepetitionCount() >= 2 || game.isDrawByNoProgress())) {
+			return DRAW;
+		}
+		
+		// The player to move has lost all pieces; losing later is better than losing sooner
+		if (game.hasWonGame() > 0) {
+			return -WIN + ply;
+		}
+		
+		// A player that cannot move ends the game in a draw
+		if (!game.hasAnyMove(playerTurn)) {
+			return DRAW;
+		}
+		
+		if (depth == 0 || ply >= MAX_PLY - 1) {
+			return quiesce(ply, alpha, beta);
+		}
+		
+		// A result of an earlier search at least as deep can be used if its bound decides the score
+		long key = game.getKey();
+		long tableMove = 0;
+		if (table.probe(key, tableEntry)) {
+			tableMove = tableEntry[0];
+			long info = tableEntry[1];
+			
+			if (useTableCutoffs && ply > 0 && TranspositionTable.getDepth(info) >= depth) {
+				int score = TranspositionTable.getScore(info, ply);
+				int bound = TranspositionTable.getBound(info);
+				
+				if (bound == TranspositionTable.EXACT
+						|| (bound == TranspositionTable.LOWER && score >= beta)
+						|| (bound == TranspositionTable.UPPER && score <= alpha)) {
+					return score;
+				}
+			}
+		}
+		
+		// Outside the principal variation, a shallow search that predicts a cutoff with enough
+		// confidence saves the deep search
+		if (useProbCut && ply > 0 && beta - alpha == 1 && depth >= PROBCUT_DEPTH && Math.abs(beta) < WIN - MAX_PLY) {
+			int shallowDepth = depth - PROBCUT_REDUCTION;
+			
+			int upper = (int) Math.ceil((beta + PROBCUT_THRESHOLD * PROBCUT_SIGMA - PROBCUT_OFFSET) / PROBCUT_SLOPE);
+			if (upper < WIN - MAX_PLY && negamax(shallowDepth, ply, upper - 1, upper) >= upper) return beta;
+			
+			int lower = (int) Math.floor((alpha - PROBCUT_THRESHOLD * PROBCUT_SIGMA - PROBCUT_OFFSET) / PROBCUT_SLOPE);
+			if (lower > -WIN + MAX_PLY && negamax(shallowDepth, ply, lower, lower + 1) <= lower) return alpha;
+			
+			if (isStopped) return DRAW;
+		}
+		
+		int offset = ply * game.getMaxMoves();
+		int moveCount = game.generateMoves(playerTurn, moveBuffer, offset);
+		
+		// The best move of the previous depth (or of the table) is searched first, it is most likely still the best
+		scoreMoves(ply == 0 ? bestMove : tableMove, ply, playerTurn, offset, moveCount);
+		
+		int originalAlpha = alpha;
+		int bestScore = -INFINITY;
+		long bestNodeMove = 0;
+		
+		for (int i = offset; i < offset + moveCount; i++) {
+			// Moves are sorted one at a time, after a cutoff the rest never has to be sorted
+			long move = pickMove(i, offset + moveCount);
+			int moveNumber = i - offset;
+			
+			game.makeMove(move);
+			int score;
+			if (moveNumber == 0) {
+				score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+			} else {
+				// A late quiet move (not the table move, a capture or a killer) that does not give the
+				// opponent a capture is searched less deep
+				int reduction = 0;
+				if (useLateMoveReductions && depth >= LMR_DEPTH && moveNumber >= LMR_MOVES
+						&& moveScores[i] < KILLER_SCORE && !game.hasCapture(game.getPlayerTurn())) {
+					reduction = depth >= LMR_DOUBLE_DEPTH && moveNumber >= LMR_DOUBLE_MOVES ? 2 : 1;
+				}
+				
+				// Test with a null window if the move beats alpha, only then find out by how much
+				score = -negamax(depth - 1 - reduction, ply + 1, -alpha - 1, -alpha);
+				
+				// A reduced move that beats alpha is verified at full depth
+				if (reduction > 0 && score > alpha) score = -negamax(depth - 1, ply + 1, -alpha - 1, -alpha);
+				if (score > alpha && score < beta) score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+			}
+			game.unmakeMove(move);
+			
+			if (isStopped) return DRAW;
+			
+			if (score > bestScore) {
+				bestScore = score;
+				bestNodeMove = move;
+				if (ply == 0) iterationMove = move;
+			}
+			if (score > alpha) alpha = score;
+			
+			// The opponent will not allow this position, the remaining moves do not matter
+			if (alpha >= beta) {
+				if (game.getCaptureCount(move) == 0) updateQuietCutoff(move, depth, ply, playerTurn);
+				break;
+			}
+		}
+		
+		// A score at or below alpha is only an upper bound, one at or above beta only a lower bound
+		int bound = bestScore <= originalAlpha ? TranspositionTable.UPPER
+				: bestScore >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+		table.store(key, depth, bound, bestScore, bound == TranspositionTable.UPPER ? 0 : bestNodeMove, ply);
+		
+		return bestScore;
+	}
+	
+	/**
+	 * Search only the captures of a position, until no capture is forced.
+	 * A position without a pending capture is quiet and scored by its evaluation (stand pat). Since
+	 * captures are forced in checkers, a position with one cannot stand pat: every capture is searched.
+	 * @param ply distance from the root
+	 * @param alpha score the player to move is already sure of
+	 * @param beta score the opponent is already sure of
+	 * @return int score of the position for the player to move, meaningless once the search is stopped
+	 */
+	private int quiesce (int ply, int alpha, int beta) {
+		int playerTurn = game.getPlayerTurn();
+		
+		if (ply >= MAX_PLY - 1 || !game.hasCapture(playerTurn)) {
+			return evaluate();
+		}
+		
+		int offset = ply * game.getMaxMoves();
+		int moveCount = game.generateMoves(playerTurn, moveBuffer, offset);
+		scoreMoves(0, ply, playerTurn, offset, moveCount);
+		
+		int bestScore = -INFINITY;
+		
+		for (int i = offset; i < offset + moveCount; i++) {
+			long move = pickMove(i, offset + moveCount);
+			
+			game.makeMove(move);
+			int score = -quiesceChild(ply + 1, -beta, -alpha);
+			game.unmakeMove(move);
+			
+			if (isStopped) return DRAW;
+			
+			if (score > bestScore) bestScore = score;
+			if (score > alpha) alpha = score;
+			if (alpha >= beta) break;
+		}
+		
+		return bestScore;
+	}
+	
+	/**
+	 * Quiescence search of the position after a capture, checking first if the game is over.
+	 * Captures cannot be undone, so the position cannot be a repetition.
+	 */
+	private int quiesceChild (int ply, int alpha, int beta) {
+		if ((++nodes & (CLOCK_INTERVAL - 1)) == 0 && System.nanoTime() - deadline > 0) isStopped = true;
+		if (isStopped) return DRAW;
+		
+		if (game.hasWonGame() > 0) return -WIN + ply;
+		if (!game.hasAnyMove(game.getPlayerTurn())) return DRAW;
+		
+		return quiesce(ply, alpha, beta);
+	}
+	
+	/**
+	 * Evaluates the board based on the piece count, giving extra weight to kings.
+	 * @return int score for the player to move
+	 */
+	private int evaluate () {
+		int evaluation = (game.getMenCount(1) - game.getMenCount(2)) * MAN_VALUE
+				+ (game.getKingsCount(1) - game.getKingsCount(2)) * KING_VALUE;
+		return game.getPlayerTurn() == 1 ? evaluation : -evaluation;
+	}
+	
+	/**
+	 * Give every move of a slice of the move buffer its ordering score.
+	 * @param hashMove long move to search first, 0 if there is none
+	 */
+	private void scoreMoves (long hashMove, int ply, int playerTurn, int offset, int count) {
+		long killer1 = killers[2 * ply];
+		long killer2 = killers[2 * ply + 1];
+		int player = (playerTurn - 1) * MOVE_INDICES;
+		
+		for (int i = offset; i < offset + count; i++) {
+			long move = moveBuffer[i];
+			int captures = game.getCaptureCount(move);
+			
+			if (move == hashMove) moveScores[i] = HASH_MOVE_SCORE;
+			else if (captures > 0) moveScores[i] = CAPTURE_SCORE + captures;
+			else if (move == killer1) moveScores[i] = KILLER_SCORE + 1;
+			else if (move == killer2) moveScores[i] = KILLER_SCORE;
+			else moveScores[i] = history[player + game.getMoveIndex(move)];
+		}
+	}
+	
+	/**
+	 * Swap the move with the highest ordering score from the rest of a slice to its front.
+	 * @param index int front of the rest of the slice
+	 * @param end int end of the slice
+	 * @return long the move now at index
+	 */
+	private long pickMove (int index, int end) {
+		int best = index;
+		for (int i = index + 1; i < end; i++) {
+			if (moveScores[i] > moveScores[best]) best = i;
+		}
+		
+		long move = moveBuffer[best];
+		int score = moveScores[best];
+		moveBuffer[best] = moveBuffer[index];
+		moveScores[best] = moveScores[index];
+		moveBuffer[index] = move;
+		moveScores[index] = score;
+		
+		return move;
+	}
+	
+	/**
+	 * Remember a quiet move that caused a cutoff as a killer move of its ply and in the history table.
+	 * Deeper cutoffs save more work, so they count more.
+	 */
+	private void updateQuietCutoff (long move, int depth, int ply, int playerTurn) {
+		if (killers[2 * ply] != move) {
+			killers[2 * ply + 1] = killers[2 * ply];
+			killers[2 * ply] = move;
+		}
+		
+		int index = (playerTurn - 1) * MOVE_INDICES + game.getMoveIndex(move);
+		history[index] += depth * depth;
+		
+		// Halve all scores before they reach the killer moves, older cutoffs count less from then on
+		if (history[index] >= HISTORY_LIMIT) {
+			for (int i = 0; i < history.length; i++) history[i] >>= 1;
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package utils;
+
+/**
+ * One of the 32 playable spaces of the game board. Squares are interned: there is exactly one
+ * instance per space, created up front, so getting a square never allocates and squares can be
+ * compared with == and used as map keys.
+ */
+
+public class Square {
+	private static final Square[] SQUARES = new Square[Bitboard.SQUARES];
+	
+	static {
+		for (int i = 0; i < Bitboard.SQUARES; i++) {
+			SQUARES[i] = new Square(i);
+		}
+	}
+	
+	public final int index;
+	public final int x;
+	public final int y;
+	
+	private Square (int index) {
+		this.index = index;
+		this.x = Bitboard.squareX(index);
+		this.y = Bitboard.squareY(index);
+	}
+	
+	/**
+	 * Get the square with a square index (as used by Bitboard and Move).
+	 * @param index int 0 - 31
+	 * @return Square
+	 */
+	public static Square of (int index) {
+		return SQUARES[index];
+	}
+	
+	/**
+	 * Get the square on a x, y coordinate.
+	 * @param x int
+	 * @param y int
+	 * @return Square, or null if the space is outside the board or not playable
+	 */
+	public static Square at (int x, int y) {
+		int index = Bitboard.toSquare(x, y);
+		return index < 0 ? null : SQUARES[index];
+	}
+	
+	/**
+	 * Get the bit of this square in a Bitboard mask.
+	 * @return int
+	 */
+	public int getBit () {
+		return 1 << index;
+	}
+	
+	/**
+	 * Convert to a Vector2i coordinate.
+	 * @return Vector2i
+	 */
+	public Vector2i toVector2i () {
+		return new Vector2i(x, y);
+	}
+	
+	@Override
+	public boolean equals (Object other) {
+		return this == other;
+	}
+	
+	@Override
+	public int hashCode () {
+		return index;
+	}
+	
+	/**
+	 * Print the coordinate of the square, e.g. "(0, 2)".
+	 */
+	@Override
+	public String toString () {
+		return "(" + x + ", " + y + ")";
+	}
+}
@@ -0,0 +1,202 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Results of earlier searches by position key, so a position reached again through another move
+ * order does not have to be searched again. Checkers king endgames reach the same positions through
+ * many move orders, there the table saves the most.
+ *
+ * Entries are kept in a single long[] instead of one object per entry, three longs per entry: a check
+ * word, the best move and an info word with the score, depth, bound and age. The table is split
+ * into buckets of two entries: the first keeps the deepest result (or any result of an older search),
+ * the second always takes the newest one. Deep results are the expensive ones to redo, and new ones
+ * are the most likely to be needed again soon.
+ *
+ * The table can be shared by searches on several threads (see LazySmpSearch) without locks. The
+ * check word is the key XOR the move XOR the info word, so an entry that one thread read while
+ * another one was writing it does not match its key and is ignored. A result can be lost that way,
+ * but a wrong result is never returned.
+ */
+
+public class TranspositionTable {
+	// Bound types: the score is exact, at least the stored score, or at most the stored score
+	public static final int EXACT = 0;
+	public static final int LOWER = 1;
+	public static final int UPPER = 2;
+	
+	// Size of a table when none is given, in MB
+	public static final int DEFAULT_SIZE = 16;
+	
+	// Longs per entry: check word, move and info word
+	private static final int ENTRY_LONGS = 3;
+	
+	// Scores at least this far from 0 are wins or losses, their distance to the root is stored separately
+	private static final int WIN_BOUND = Search.WIN - Search.MAX_PLY;
+	
+	// The info word holds the score in bits 0 - 31, the depth plus one in bits 32 - 39, the bound in
+	// bits 40 - 41 and the age of the search in bits 42 and up
+	private long[] entries;
+	private int bucketMask;
+	private volatile int age;
+	
+	/**
+	 * Initialize an empty table.
+	 * @param megabytes int size of the table in MB, at least 1
+	 */
+	public TranspositionTable (int megabytes) {
+		resize(megabytes);
+	}
+	
+	/**
+	 * Change the size of the table, this clears it. Must not be called while a search uses the table.
+	 * @param megabytes int size of the table in MB, at least 1
+	 */
+	public void resize (int megabytes) {
+		if (megabytes < 1) throw new IllegalArgumentException("table size must be at least 1 MB");
+		
+		// The amount of buckets is a power of two, so a bucket can be found by masking the key
+		long count = ((long) megabytes << 20) / (8 * ENTRY_LONGS);
+		int buckets = Integer.highestOneBit((int) Math.min(count / 2, 1 << 28));
+		
+		entries = new long[2 * ENTRY_LONGS * buckets];
+		bucketMask = buckets - 1;
+		age = 0;
+	}
+	
+	/**
+	 * Remove all entries. Must not be called while a search uses the table.
+	 */
+	public void clear () {
+		Arrays.fill(entries, 0);
+		age = 0;
+	}
+	
+	/**
+	 * Mark the start of a new search, the entries of earlier searches are then replaced first.
+	 */
+	public void newSearch () {
+		age = (age + 1) & 0x3FFFFF;
+	}
+	
+	/**
+	 * Get the amount of entries the table can hold.
+	 * @return int
+	 */
+	public int getCapacity () {
+		return entries.length / ENTRY_LONGS;
+	}
+	
+	/**
+	 * Look up a position.
+	 * @param key long key of the position
+	 * @param entry long[2] receives the best move and the info word of the entry, see the static getters
+	 * @return boolean if the position is in the table
+	 */
+	public boolean probe (long key, long[] entry) {
+		int index = bucketIndex(key);
+		
+		for (int slot = 0; slot < 2; slot++, index += ENTRY_LONGS) {
+			// Read each word once, another thread may change the entry at any time
+			long check = entries[index];
+			long move = entries[index + 1];
+			long info = entries[index + 2];
+			
+			if (info != 0 && (check ^ move ^ info) == key) {
+				entry[0] = move;
+				entry[1] = info;
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Get the depth of an entry.
+	 * @param info long info word from probe
+	 * @return int
+	 */
+	public static int getDepth (long info) {
+		return (int) ((info >>> 32) & 0xFF) - 1;
+	}
+	
+	/**
+	 * Get the bound type of an entry.
+	 * @param info long info word from probe
+	 * @return int EXACT, LOWER or UPPER
+	 */
+	public static int getBound (long info) {
+		return (int) (info >>> 40) & 3;
+	}
+	
+	/**
+	 * Get the score of an entry.
+	 * @param info long info word from probe
+	 * @param ply int distance of the position from the root of the current search
+	 * @return int score for the player to move
+	 */
+	public static int getScore (long info, int ply) {
+		int score = (int) info;
+		if (score >= WIN_BOUND) return score - ply;
+		if (score <= -WIN_BOUND) return score + ply;
+		return score;
+	}
+	
+	/**
+	 * Store the result of a search.
+	 * @param key long key of the position
+	 * @param depth int depth the position was searched to, 0 - 254
+	 * @param bound int EXACT, LOWER or UPPER
+	 * @param score int score for the player to move
+	 * @param move long best move, 0 if there is none
+	 * @param ply int distance of the position from the root of the current search
+	 */
+	public void store (long key, int depth, int bound, int score, long move, int ply) {
+		int index = bucketIndex(key);
+		int age = this.age;
+		
+		long check = entries[index];
+		long oldMove = entries[index + 1];
+		long oldInfo = entries[index + 2];
+		boolean isSame = oldInfo != 0 && (check ^ oldMove ^ oldInfo) == key;
+		
+		// The deepest entry is only replaced by a result at least as deep, or once it is from an older search
+		if (isSame || oldInfo == 0 || depth >= getDepth(oldInfo) || (int) (oldInfo >>> 42) != age) {
+			// Keep the previous best move of the position when this search found none
+			if (move == 0 && isSame) move = oldMove;
+			
+			// Move the replaced entry to the second slot, unless it is the same position
+			if (!isSame && oldInfo != 0) write(index + ENTRY_LONGS, check, oldMove, oldInfo);
+		} else {
+			index += ENTRY_LONGS;
+			long otherMove = entries[index + 1];
+			long otherInfo = entries[index + 2];
+			if (move == 0 && otherInfo != 0 && (entries[index] ^ otherMove ^ otherInfo) == key) move = otherMove;
+		}
+		
+		// Wins and losses are stored by their distance to this position instead of to the root
+		if (score >= WIN_BOUND) score += ply;
+		else if (score <= -WIN_BOUND) score -= ply;
+		
+		// Depth is stored plus one, so an info word of 0 marks an empty entry
+		long info = (score & 0xFFFFFFFFL) | ((long) Math.min(depth + 1, 0xFF) << 32) | ((long) bound << 40) | ((long) age << 42);
+		write(index, key ^ move ^ info, move, info);
+	}
+	
+	/**
+	 * Write the three words of an entry.
+	 */
+	private void write (int index, long check, long move, long info) {
+		entries[index] = check;
+		entries[index + 1] = move;
+		entries[index + 2] = info;
+	}
+	
+	/**
+	 * Get the index of the first entry of the bucket of a key.
+	 */
+	private int bucketIndex (long key) {
+		return ((int) key & bucketMask) * 2 * ENTRY_LONGS;
+	}
+}
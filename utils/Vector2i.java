@@ -8,13 +8,13 @@ package utils;
  */
 
 public class Vector2i {
-	public Integer x;
-	public Integer y;
+	public int x;
+	public int y;
 
 	/**
 	 * Initialize with a x,y coordinate
-	 * @param x Integer
-	 * @param y Integer
+	 * @param x int
+	 * @param y int
 	 */
 	public Vector2i (int x, int y) {
 		this.x = x;
@@ -30,10 +30,22 @@ public class Vector2i {
 	
 	/**
 	 * Check of two vectors equal each other
-	 * @param vec2 Vector to compare it with
+	 * @param other Vector to compare it with
 	 * @return boolean
 	 */
-	public boolean equals(Vector2i vec2) {
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof Vector2i)) return false;
+		
+		Vector2i vec2 = (Vector2i) other;
         return this.x == vec2.x && this.y == vec2.y;
 	}
+	
+	/**
+	 * Hash code matching equals, so vectors can be used as map keys.
+	 */
+	@Override
+	public int hashCode() {
+		return 31 * this.x + this.y;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package utils;
+
+/**
+ * Random keys for Zobrist hashing of checkers positions. The key of a position is the XOR of one
+ * key per piece (by piece type and square) and the side key when it is player 2's turn, so a move
+ * only has to XOR the keys of the squares it changes.
+ *
+ * The keys come from a fixed seed, so the key of a position is the same in every run of the game.
+ * There are keys for up to 64 squares, so the 10x10 board (see InternationalLogic) uses them too.
+ * Its keys also contain the international key, so a position of one variant never has the key of a
+ * position of the other one, and a table shared by both never mixes them up.
+ */
+
+public class Zobrist {
+	// Piece types, used as the first index into the piece keys
+	public static final int WHITE_MAN = 0;
+	public static final int WHITE_KING = 1;
+	public static final int BLACK_MAN = 2;
+	public static final int BLACK_KING = 3;
+	
+	// Most squares of any supported board
+	public static final int MAX_SQUARES = 64;
+	
+	private static final long[] PIECE_KEYS = new long[4 * MAX_SQUARES];
+	private static final long SIDE_KEY;
+	private static final long INTERNATIONAL_KEY;
+	
+	static {
+		// SplitMix64, so the keys do not depend on the java.util.Random implementation
+		long seed = 0x5DEECE66DL;
+		for (int i = 0; i < PIECE_KEYS.length; i++) {
+			seed += 0x9E3779B97F4A7C15L;
+			PIECE_KEYS[i] = mix(seed);
+		}
+		seed += 0x9E3779B97F4A7C15L;
+		SIDE_KEY = mix(seed);
+		seed += 0x9E3779B97F4A7C15L;
+		INTERNATIONAL_KEY = mix(seed);
+	}
+	
+	/**
+	 * Get the key of a piece type on a square.
+	 * @param pieceType int (WHITE_MAN, WHITE_KING, BLACK_MAN or BLACK_KING)
+	 * @param square int 0 - 63
+	 * @return long
+	 */
+	public static long pieceKey (int pieceType, int square) {
+		return PIECE_KEYS[(pieceType << 6) | square];
+	}
+	
+	/**
+	 * Get the key that is XOR'ed in when it is player 2's turn.
+	 * @return long
+	 */
+	public static long sideKey () {
+		return SIDE_KEY;
+	}
+	
+	/**
+	 * Get the key that is XOR'ed into every position of the 10x10 variant.
+	 * @return long
+	 */
+	public static long internationalKey () {
+		return INTERNATIONAL_KEY;
+	}
+	
+	/**
+	 * Compute the key of a position from scratch.
+	 * @param board Bitboard
+	 * @param playerTurn int (1 or 2)
+	 * @return long
+	 */
+	public static long compute (Bitboard board, int playerTurn) {
+		long key = playerTurn == 2 ? SIDE_KEY : 0;
+		
+		key ^= xorAll(WHITE_MAN, board.white & ~board.kings);
+		key ^= xorAll(WHITE_KING, board.white & board.kings);
+		key ^= xorAll(BLACK_MAN, board.black & ~board.kings);
+		key ^= xorAll(BLACK_KING, board.black & board.kings);
+		
+		return key;
+	}
+	
+	/**
+	 * XOR together the keys of a piece type on every square of a mask.
+	 * @param pieceType int
+	 * @param squares int mask
+	 * @return long
+	 */
+	public static long xorAll (int pieceType, int squares) {
+		long key = 0;
+		
+		while (squares != 0) {
+			key ^= PIECE_KEYS[(pieceType << 6) | Integer.numberOfTrailingZeros(squares)];
+			squares &= squares - 1;
+		}
+		
+		return key;
+	}
+	
+	/**
+	 * XOR together the keys of a piece type on every square of a 64-bit mask.
+	 * @param pieceType int
+	 * @param squares long mask
+	 * @return long
+	 */
+	public static long xorAll (int pieceType, long squares) {
+		long key = 0;
+		
+		while (squares != 0) {
+			key ^= PIECE_KEYS[(pieceType << 6) | Long.numberOfTrailingZeros(squares)];
+			squares &= squares - 1;
+		}
+		
+		return key;
+	}
+	
+	/**
+	 * The SplitMix64 output function.
+	 * @param z long
+	 * @return long
+	 */
+	private static long mix (long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}